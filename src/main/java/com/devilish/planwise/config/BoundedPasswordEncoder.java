@@ -0,0 +1,89 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Executa o BCrypt em um pool dedicado, do tamanho do número de núcleos: um pico de logins
+// não ocupa as threads do Tomcat com hashing e não disputa CPU com o restante da API.
+// Com a fila cheia a requisição é recusada na hora (503) em vez de esperar indefinidamente.
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admission;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        // O limite fica no semáforo (threads + fila) e não na fila do executor: com fila 0 uma
+        // SynchronousQueue recusaria a tarefa enquanto a thread recém-liberada ainda não voltou a esperar
+        this.admission = new Semaphore(threads + queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory());
+        this.rejected = Counter.builder("planwise.password-hashing.rejected")
+                .description("Operações de hash de senha recusadas com a fila cheia")
+                .register(meterRegistry);
+
+        // executor.queued, executor.active, executor.queue.remaining etc.
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Apenas lê o custo gravado no hash; não precisa do pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Servidor ocupado. Tente novamente em instantes.");
+        }
+
+        Future<T> future = null;
+        try {
+            future = executor.submit(task);
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de senha interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha no hash de senha", e.getCause());
+        } finally {
+            admission.release();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.devilish.planwise.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Leitura com carregamento para caches que consultam o banco. O carregamento de um cache síncrono do
+// Caffeine roda dentro de ConcurrentHashMap.compute (um monitor): no JDK 21 uma thread virtual que espera
+// conexão ali prende a thread portadora e, com poucas portadoras, a aplicação inteira para.
+// Aqui o compute só registra um future vazio; quem o registrou consulta fora dele e os demais aguardam
+// o mesmo future. invalidate descarta o future em andamento, como no cache síncrono.
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    // Valores nulos não ficam no cache (o Caffeine remove o future)
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future != loading) {
+            return await(future);
+        }
+
+        try {
+            V value = loader.apply(key);
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.devilish.planwise.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Semáforo justo com fila limitada: até maxWaiting threads esperam por uma permissão, no máximo
+// acquireTimeout cada; quem chega com a fila cheia é recusado na hora, sem esperar.
+// Base da admissão de requisições (AdmissionControlFilter) e do acesso ao Hikari no modo de threads virtuais.
+class ConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    ConcurrencyLimiter(int limit, int maxWaiting, Duration acquireTimeout) {
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    // false = fila cheia ou tempo esgotado; a permissão obtida deve voltar em release()
+    boolean tryAcquire() throws InterruptedException {
+        // Tempo zero respeita a ordem da fila, ao contrário de tryAcquire() sem argumentos
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    long getAcquireTimeoutMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos);
+    }
+
+    int getWaiting() {
+        return waiting.get();
+    }
+
+    int getInUse() {
+        return limit - permits.availablePermits();
+    }
+}
@@ -0,0 +1,96 @@
+package com.devilish.planwise.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Com threads virtuais o Tomcat aceita milhares de requisições simultâneas, todas disputando
+// as poucas conexões do Hikari. Uma permissão por conexão do pool: a espera acontece aqui,
+// estacionando a thread virtual, com fila limitada e tempo limite menor que o do Hikari, para
+// que o excesso falhe logo em vez de envelhecer na fila (a admissão de requisições fica no
+// AdmissionControlFilter; este limite cobre também agendamentos e tarefas assíncronas).
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitingDataSource(DataSource target, int limit, int maxWaiting, Duration acquireTimeout) {
+        super(target);
+        this.limiter = new ConcurrencyLimiter(limit, maxWaiting, acquireTimeout);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getWaiting() {
+        return limiter.getWaiting();
+    }
+
+    public int getInUse() {
+        return limiter.getInUse();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!limiter.tryAcquire()) {
+                throw new SQLTransientConnectionException("Conexão com o banco indisponível (fila de "
+                        + limiter.getMaxWaiting() + " cheia ou espera acima de " + limiter.getAcquireTimeoutMillis() + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão com o banco", e);
+        }
+    }
+
+    // A permissão volta ao semáforo quando a conexão é devolvida ao pool (apenas uma vez)
+    private Connection guard(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConcurrencyLimitingDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                limiter.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
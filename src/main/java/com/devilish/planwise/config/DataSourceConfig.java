@@ -0,0 +1,110 @@
+package com.devilish.planwise.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Dois pools para o mesmo banco: "oltp" para o CRUD transacional e "reporting" para relatórios
+// e exportações (@ReportingWorkload). Uma exportação longa não ocupa as conexões do POST de despesas.
+// Tamanho e tempos de cada pool em planwise.datasource.<pool>.hikari; métricas em hikaricp.* (tag pool).
+// O Flyway usa conexões próprias, sem statement_timeout.
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("planwise.datasource.oltp.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties,
+                                           ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                           @Value("${planwise.datasource.oltp.statement-timeout:5s}") Duration statementTimeout) {
+        return pool(properties, connectionDetails.getIfAvailable(), "oltp", statementTimeout);
+    }
+
+    @Bean
+    @ConfigurationProperties("planwise.datasource.reporting.hikari")
+    public HikariDataSource reportingDataSource(DataSourceProperties properties,
+                                                ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                                @Value("${planwise.datasource.reporting.statement-timeout:2m}") Duration statementTimeout) {
+        return pool(properties, connectionDetails.getIfAvailable(), "reporting", statementTimeout);
+    }
+
+    // DataSource usado pelo JPA e JdbcTemplate
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltpDataSource,
+                                 @Qualifier("reportingDataSource") DataSource reportingDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaHealthMonitor> replicaHealthMonitor,
+                                 ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource(oltpDataSource, reportingDataSource,
+                replicaDataSource.getIfAvailable(), replicaHealthMonitor.getIfAvailable(),
+                readYourWritesTracker.getIfAvailable(), meterRegistry));
+    }
+
+    // Migrações fora dos pools: CREATE INDEX e backfills passam do statement_timeout do OLTP.
+    // Conexões avulsas, abertas apenas durante a migração na inicialização. Entregue só ao Flyway,
+    // sem virar bean DataSource: o health check do actuator abriria uma conexão sem pool a cada sondagem.
+    @Bean
+    public FlywayConfigurationCustomizer flywayUnpooledDataSource(DataSourceProperties properties,
+                                                                  ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        return configuration -> configuration.dataSource(unpooled(properties, connectionDetails.getIfAvailable()));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor reportingWorkloadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReportingWorkload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(ReportingWorkload.class));
+        return new DefaultPointcutAdvisor(pointcut, new ReportingWorkloadInterceptor());
+    }
+
+    // Conexões avulsas do primário, sem pool nem statement_timeout (Flyway, LISTEN das versões de dados)
+    static DataSource unpooled(DataSourceProperties properties, JdbcConnectionDetails details) {
+        if (details == null) {
+            return properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        }
+        return DataSourceBuilder.create()
+                .type(SimpleDriverDataSource.class)
+                .driverClassName(details.getDriverClassName())
+                .url(details.getJdbcUrl())
+                .username(details.getUsername())
+                .password(details.getPassword())
+                .build();
+    }
+
+    // Conexão de spring.datasource, ou de um JdbcConnectionDetails quando existir (@ServiceConnection nos testes)
+    static HikariDataSource pool(DataSourceProperties properties, JdbcConnectionDetails connectionDetails,
+                                 String name, Duration statementTimeout) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (connectionDetails != null) {
+            dataSource.setDriverClassName(connectionDetails.getDriverClassName());
+            dataSource.setJdbcUrl(connectionDetails.getJdbcUrl());
+            dataSource.setUsername(connectionDetails.getUsername());
+            dataSource.setPassword(connectionDetails.getPassword());
+        }
+        dataSource.setPoolName(name);
+        dataSource.setConnectionInitSql("SET statement_timeout = " + statementTimeout.toMillis());
+        return dataSource;
+    }
+}
@@ -0,0 +1,65 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.services.user.UserDataVersions;
+import com.devilish.planwise.services.user.UserService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.util.Enumeration;
+
+// GETs de dados do usuário recebem um ETag fraco derivado da versão dos dados (UserDataVersions).
+// If-None-Match com a versão atual responde 304 antes do controller: nenhuma consulta nem serialização.
+// A data entra no ETag porque alguns resultados (mês corrente, metas vencidas) mudam com o dia.
+@Component
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+    private final UserDataVersions dataVersions;
+    private final UserService userService;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        // O dispatch ASYNC das exportações em streaming já teve o ETag tratado na requisição original
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        Long userId = userService.getCurrentUserId();
+        // Versão lida antes da consulta: um commit durante a requisição gera um ETag antigo, nunca um 304 indevido
+        String etag = "W/\"" + dataVersions.current(userId) + "-" + LocalDate.now().toEpochDay() + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        if (matches(request.getHeaders(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    // Comparação fraca: ignora o prefixo W/ de ambos os lados
+    private static boolean matches(Enumeration<String> ifNoneMatch, String etag) {
+        String opaque = etag.substring(2);
+        while (ifNoneMatch.hasMoreElements()) {
+            for (String candidate : ifNoneMatch.nextElement().split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(opaque)
+                        || (tag.startsWith("W/") && tag.substring(2).equals(opaque))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
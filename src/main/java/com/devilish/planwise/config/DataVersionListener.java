@@ -0,0 +1,135 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.repository.user.UserDataVersionRepository;
+import com.devilish.planwise.services.user.UserDataVersions;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// LISTEN no canal das versões de dados, numa conexão dedicada ao primário (fora dos pools).
+// Cada notificação avança a versão do usuário neste nó e, com réplica, mantém as leituras dele no primário
+// (ReadYourWritesTracker), como no nó que gravou. Enquanto a conexão estiver caída as versões
+// deixam de valer (UserDataVersions.unsubscribed) e, ao reconectar, começa uma época nova.
+@Slf4j
+@Component
+public class DataVersionListener implements SmartLifecycle {
+
+    private final DataSource dataSource;
+    private final UserDataVersions dataVersions;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Duration reconnectInterval;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    @Autowired
+    public DataVersionListener(DataSourceProperties properties,
+                               ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                               UserDataVersions dataVersions,
+                               ObjectProvider<ReadYourWritesTracker> readYourWrites,
+                               @Value("${planwise.data-versions.reconnect-interval:5s}") Duration reconnectInterval) {
+        this(DataSourceConfig.unpooled(properties, connectionDetails.getIfAvailable()), dataVersions,
+                readYourWrites.getIfAvailable(), reconnectInterval);
+    }
+
+    // readYourWrites é nulo sem réplica configurada
+    public DataVersionListener(DataSource dataSource, UserDataVersions dataVersions,
+                               ReadYourWritesTracker readYourWrites, Duration reconnectInterval) {
+        this.dataSource = dataSource;
+        this.dataVersions = dataVersions;
+        this.readYourWrites = readYourWrites;
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("data-version-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        dataVersions.unsubscribed();
+        closeQuietly(connection);
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection listening = dataSource.getConnection()) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + UserDataVersionRepository.CHANNEL);
+                }
+                dataVersions.subscribed();
+                log.info("Versões de dados inscritas no canal {}", UserDataVersionRepository.CHANNEL);
+
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) reconnectInterval.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        // Sem tráfego: confirma que a conexão não caiu em silêncio
+                        if (!listening.isValid(5)) {
+                            throw new SQLException("Conexão do LISTEN inválida");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        Long userId = Long.valueOf(notification.getParameter());
+                        if (readYourWrites != null) {
+                            readYourWrites.pin(userId);
+                        }
+                        dataVersions.changed(userId);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                dataVersions.unsubscribed();
+                if (running) {
+                    log.warn("Canal das versões de dados indisponível, versões novas a cada leitura até reconectar: {}",
+                            e.getMessage());
+                    sleep();
+                }
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(reconnectInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Encerrando
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.devilish.planwise.config;
 
 
 import com.devilish.planwise.services.user.CustomUserDetailsService;
+import com.devilish.planwise.services.user.UserStatusCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +27,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
 
     @Override
     protected void doFilterInternal(
@@ -44,16 +47,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // A assinatura e a expiração são verificadas uma única vez ao ler as claims
+            Claims claims = jwtService.validateToken(jwt);
+            userEmail = claims.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+                Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+                UsernamePasswordAuthenticationToken authToken = userId != null
+                        ? authenticateFromClaims(userId, userEmail)
+                        : authenticateFromDatabase(claims, userEmail);
+                if (authToken != null) {
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
@@ -65,4 +68,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // O perfil vem da situação em cache, para que mudanças de perfil não esperem a expiração do token
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Long userId, String userEmail) {
+        UserStatusCache.Status status = userStatusCache.get(userId);
+        if (status == null || !status.active()) {
+            return null;
+        }
+
+        AuthenticatedUser principal = new AuthenticatedUser(userId, userEmail, status.role());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    // Tokens emitidos antes das claims de id e perfil
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(Claims claims, String userEmail) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
 }
@@ -1,26 +1,76 @@
 package com.devilish.planwise.config;
 
+import com.devilish.planwise.entities.User;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    // Chave atual assina os tokens; as anteriores só validam tokens ainda não expirados
+    private final String currentKeyId;
+    private final SecretKey currentKey;
+    private final Map<String, SecretKey> keyRing;
+    private final long jwtExpiration;
+    private final JwtParser parser;
+
     @Autowired
-    private Dotenv dotenv;
+    public JwtService(Dotenv dotenv) {
+        this(getSecretKey(dotenv),
+                parsePreviousSecrets(dotenv.get("JWT_PREVIOUS_SECRETS", "")),
+                Long.parseLong(dotenv.get("JWT_EXPIRATION", "86400000")));
+    }
 
-    private String getSecretKey() {
+    public JwtService(String secret, List<String> previousSecrets, long jwtExpiration) {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        this.currentKey = toSigningKey(secret);
+        this.currentKeyId = keyIdOf(currentKey);
+        keys.put(currentKeyId, currentKey);
+        for (String previousSecret : previousSecrets) {
+            SecretKey key = toSigningKey(previousSecret);
+            keys.putIfAbsent(keyIdOf(key), key);
+        }
+        this.keyRing = Map.copyOf(keys);
+        this.jwtExpiration = jwtExpiration;
+
+        // O parser é imutável e thread-safe; a chave é escolhida pelo kid do cabeçalho
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    private static String getSecretKey(Dotenv dotenv) {
         String secret = dotenv.get("JWT_SECRET");
         if (secret == null || secret.trim().isEmpty()) {
             throw new IllegalStateException("JWT_SECRET não foi configurado no arquivo .env");
@@ -28,16 +78,19 @@ public class JwtService {
         return secret;
     }
 
-    private long getJwtExpiration() {
-        return Long.parseLong(dotenv.get("JWT_EXPIRATION", "86400000"));
+    private static List<String> parsePreviousSecrets(String secrets) {
+        return Arrays.stream(secrets.split(","))
+                .map(String::trim)
+                .filter(secret -> !secret.isEmpty())
+                .toList();
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return validateToken(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = validateToken(token);
         return claimsResolver.apply(claims);
     }
 
@@ -45,8 +98,16 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    // Id e perfil no token permitem autenticar as requisições sem consultar tb_user
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        return generateToken(claims, user);
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, getJwtExpiration());
+        return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
     private String buildToken(
@@ -56,38 +117,53 @@ public class JwtService {
     ) {
         return Jwts
                 .builder()
+                .header().keyId(currentKeyId).and()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(currentKey)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    // Verifica assinatura e expiração em uma única leitura; lança JwtException se o token for inválido
+    public Claims validateToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(validateToken(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private Key resolveKey(String keyId) {
+        // Tokens emitidos antes do kid foram assinados com a chave atual
+        if (keyId == null) {
+            return currentKey;
+        }
+
+        SecretKey key = keyRing.get(keyId);
+        if (key == null) {
+            throw new JwtException("Chave de assinatura desconhecida: " + keyId);
+        }
+        return key;
     }
 
-    private javax.crypto.SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(getSecretKey());
+    private static SecretKey toSigningKey(String secret) {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    // kid derivado da própria chave, para não exigir configuração extra na rotação
+    private static String keyIdOf(SecretKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// Backfill dos acumulados mensais e do saldo diário: iniciar a aplicação com --rebuild-rollups
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupRebuildRunner implements ApplicationRunner {
+
+    public static final String REBUILD_OPTION = "rebuild-rollups";
+
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceLedgerService balanceLedgerService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+
+        log.info("Reconstruindo acumulados mensais e saldo diário (--{})", REBUILD_OPTION);
+        monthlyRollupService.rebuild();
+        balanceLedgerService.rebuild();
+    }
+}
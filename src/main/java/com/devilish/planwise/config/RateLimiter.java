@@ -0,0 +1,95 @@
+package com.devilish.planwise.config;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket sem locks no formato GCRA: cada chave guarda apenas o instante teórico em que
+// o balde estaria cheio de novo (um AtomicLong), atualizado por CAS.
+// O ConcurrentHashMap já é particionado internamente, então chaves diferentes não disputam o mesmo lock.
+public class RateLimiter {
+
+    public record Limit(int capacity, Duration window) {
+
+        long windowNanos() {
+            return window.toNanos();
+        }
+
+        // Tempo para repor uma ficha
+        long emissionIntervalNanos() {
+            return window.toNanos() / capacity;
+        }
+    }
+
+    // Intervalo mínimo entre limpezas disparadas por excesso de chaves
+    private static final long EVICTION_BACKOFF_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final AtomicLong lastEviction;
+
+    public RateLimiter(int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int maxKeys, LongSupplier clock) {
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.lastEviction = new AtomicLong(clock.getAsLong() - EVICTION_BACKOFF_NANOS);
+    }
+
+    // 0 quando a requisição é aceita; caso contrário, nanos até a próxima ficha
+    public long tryAcquire(String key, String overflowKey, Limit limit) {
+        long now = clock.getAsLong();
+        AtomicLong state = bucketFor(key, overflowKey, now);
+        long interval = limit.emissionIntervalNanos();
+        long window = limit.windowNanos();
+
+        while (true) {
+            long current = state.get();
+            long next = Math.max(current, now) + interval;
+            long allowedAt = next - window;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Chave ociosa = balde cheio, equivalente a não ter entrada; pode ser removida sem mudar o resultado.
+    // Uma requisição concorrente à remoção pode ter sua ficha descontada de um balde descartado (no máximo uma a mais).
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(state -> state.get() <= now);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String key, String overflowKey, long now) {
+        AtomicLong state = buckets.get(key);
+        if (state != null) {
+            return state;
+        }
+
+        // Muitas chaves ativas (ex.: rotação de IPs): tenta liberar as ociosas (no máximo uma varredura
+        // por segundo) e, se continuar cheio, os clientes novos dividem um balde comum da rota
+        if (buckets.size() >= maxKeys) {
+            long last = lastEviction.get();
+            if (now - last >= EVICTION_BACKOFF_NANOS && lastEviction.compareAndSet(last, now)) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxKeys) {
+                return buckets.computeIfAbsent(overflowKey, k -> new AtomicLong(now));
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
@@ -1,84 +1,133 @@
 package com.devilish.planwise.config;
 
-// import com.github.bucket4j.Bucket;
-// Imports comentados pois a classe está desabilitada
-// import jakarta.servlet.FilterChain;
-// import jakarta.servlet.ServletException;
-// import jakarta.servlet.http.HttpServletRequest;
-// import jakarta.servlet.http.HttpServletResponse;
-// import lombok.RequiredArgsConstructor;
-// import org.springframework.http.HttpStatus;
-// import org.springframework.lang.NonNull;
-// import org.springframework.stereotype.Component;
-// import org.springframework.web.filter.OncePerRequestFilter;
-// import java.io.IOException;
-// import java.util.Map;
-
-// @Component
-// @RequiredArgsConstructor
-// public class RateLimitingFilter extends OncePerRequestFilter {
-
-//     private final Map<String, Bucket> rateLimitBuckets;
-
-//     @Override
-//     protected void doFilterInternal(
-//             @NonNull HttpServletRequest request,
-//             @NonNull HttpServletResponse response,
-//             @NonNull FilterChain filterChain
-//     ) throws ServletException, IOException {
-
-//         String clientIp = getClientIpAddress(request);
-//         String requestPath = request.getRequestURI();
-//         
-//         // Determinar limite baseado no endpoint
-//         Bucket bucket = getBucketForRequest(clientIp, requestPath);
-//         
-//         if (bucket.tryConsume(1)) {
-//             filterChain.doFilter(request, response);
-//         } else {
-//             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-//             response.setContentType("application/json");
-//             response.getWriter().write("{\"error\":\"Rate limit exceeded. Please try again later.\"}");
-//         }
-//     }
-
-//     private Bucket getBucketForRequest(String clientIp, String requestPath) {
-//         String key = clientIp + ":" + requestPath;
-//         
-//         return rateLimitBuckets.computeIfAbsent(key, k -> {
-//             if (requestPath.contains("/api/auth/login")) {
-//                 return RateLimitingConfig.createBucket(
-//                     RateLimitingConfig.LOGIN_RATE_LIMIT, 
-//                     RateLimitingConfig.LOGIN_RATE_LIMIT, 
-//                     RateLimitingConfig.RATE_LIMIT_WINDOW
-//                 );
-//             } else if (requestPath.contains("/api/auth/register")) {
-//                 return RateLimitingConfig.createBucket(
-//                     RateLimitingConfig.REGISTER_RATE_LIMIT, 
-//                     RateLimitingConfig.REGISTER_RATE_LIMIT, 
-//                     RateLimitingConfig.RATE_LIMIT_WINDOW
-//                 );
-//             } else {
-//                 return RateLimitingConfig.createBucket(
-//                     RateLimitingConfig.GENERAL_RATE_LIMIT, 
-//                     RateLimitingConfig.GENERAL_RATE_LIMIT, 
-//                     RateLimitingConfig.RATE_LIMIT_WINDOW
-//                 );
-//             }
-//         });
-//     }
-
-//     private String getClientIpAddress(HttpServletRequest request) {
-//         String xForwardedFor = request.getHeader("X-Forwarded-For");
-//         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-//             return xForwardedFor.split(",")[0].trim();
-//         }
-//         
-//         String xRealIp = request.getHeader("X-Real-IP");
-//         if (xRealIp != null && !xRealIp.isEmpty()) {
-//             return xRealIp;
-//         }
-//         
-//         return request.getRemoteAddr();
-//     }
-// }
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    enum Route {
+        LOGIN, REGISTER, GENERAL
+    }
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final boolean trustForwardedHeaders;
+    private final Map<Route, RateLimiter.Limit> limits = new EnumMap<>(Route.class);
+    private final Map<Route, Counter> rejected = new EnumMap<>(Route.class);
+
+    public RateLimitingFilter(RateLimiter rateLimiter,
+                              MeterRegistry meterRegistry,
+                              @Value("${planwise.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${planwise.rate-limit.trust-forwarded-headers:false}") boolean trustForwardedHeaders,
+                              @Value("${planwise.rate-limit.window:1m}") Duration window,
+                              @Value("${planwise.rate-limit.login:" + RateLimitingConfig.LOGIN_RATE_LIMIT + "}") int loginLimit,
+                              @Value("${planwise.rate-limit.register:" + RateLimitingConfig.REGISTER_RATE_LIMIT + "}") int registerLimit,
+                              @Value("${planwise.rate-limit.general:" + RateLimitingConfig.GENERAL_RATE_LIMIT + "}") int generalLimit) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.trustForwardedHeaders = trustForwardedHeaders;
+        limits.put(Route.LOGIN, new RateLimiter.Limit(loginLimit, window));
+        limits.put(Route.REGISTER, new RateLimiter.Limit(registerLimit, window));
+        limits.put(Route.GENERAL, new RateLimiter.Limit(generalLimit, window));
+
+        for (Route route : Route.values()) {
+            rejected.put(route, Counter.builder("planwise.rate-limit.rejected")
+                    .description("Requisições recusadas pelo limite de taxa")
+                    .tag("route", route.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("planwise.rate-limit.keys", rateLimiter, RateLimiter::size)
+                .description("Clientes com balde ativo em memória")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Route route = routeOf(request.getServletPath());
+        String clientIp = getClientIpAddress(request);
+
+        // Login e cadastro são limitados antes de qualquer verificação de senha (BCrypt)
+        long waitNanos = rateLimiter.tryAcquire(route.name() + ":" + clientIp, route.name() + ":*", limits.get(route));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(route).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Rate limit exceeded. Please try again later.\"}");
+    }
+
+    // Remove periodicamente os baldes já cheios, que não guardam informação: a memória acompanha
+    // apenas os clientes ativos na janela, mesmo com muitos IPs diferentes
+    @Scheduled(fixedDelayString = "${planwise.rate-limit.eviction-interval:30s}")
+    public void evictIdleBuckets() {
+        int evicted = rateLimiter.evictIdle();
+        if (evicted > 0) {
+            log.debug("Limite de taxa: {} baldes ociosos removidos", evicted);
+        }
+    }
+
+    static Route routeOf(String path) {
+        if (path.equals("/api/auth/login")) {
+            return Route.LOGIN;
+        }
+        if (path.equals("/api/auth/register")) {
+            return Route.REGISTER;
+        }
+        return Route.GENERAL;
+    }
+
+    // Cabeçalhos de proxy só são considerados atrás de um proxy confiável; caso contrário o cliente
+    // poderia trocar de balde a cada requisição. Usa o último endereço, acrescentado pelo próprio proxy.
+    private String getClientIpAddress(HttpServletRequest request) {
+        if (trustForwardedHeaders) {
+            String xForwardedFor = request.getHeader("X-Forwarded-For");
+            if (xForwardedFor != null && !xForwardedFor.isBlank()) {
+                int lastComma = xForwardedFor.lastIndexOf(',');
+                return xForwardedFor.substring(lastComma + 1).trim();
+            }
+
+            String xRealIp = request.getHeader("X-Real-IP");
+            if (xRealIp != null && !xRealIp.isBlank()) {
+                return xRealIp.trim();
+            }
+        }
+
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,52 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Depois de uma alteração confirmada, as leituras do mesmo usuário ficam no primário durante a janela:
+// a réplica ainda pode não ter aplicado a gravação. Sem isso, um relatório lido da réplica atrasada
+// seria guardado no ReportCache (e respondido com 304) sob a versão de dados já nova.
+// Alterações feitas em outros nós chegam pelo DataVersionListener.
+public class ReadYourWritesTracker {
+
+    private final Duration window;
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maximumSize) {
+        this.window = window;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    // Antes do commit, e portanto antes da nova versão: nenhuma leitura com a versão nova vai para a réplica.
+    // Num rollback o usuário só fica no primário à toa pela janela.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserDataChanging(UserDataChangedEvent event) {
+        pin(event.userId());
+    }
+
+    public void pin(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isCurrentUserPinned() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return recentWriters.getIfPresent(principal.id()) != null;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Verifica periodicamente se a réplica responde e quanto está atrasada em relação ao primário.
+// Fora do ar ou com atraso acima do limite, as leituras voltam para o primário até a próxima verificação boa.
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    // Sem WAL pendente de aplicar o atraso é zero, mesmo que o primário esteja ocioso há tempo;
+    // fora de recuperação (banco independente, como nos testes) também
+    private static final String LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration maxLag;
+    private volatile boolean healthy;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaHealthMonitor(DataSource replicaDataSource, Duration maxLag, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.jdbcTemplate.setQueryTimeout(5);
+        this.maxLag = maxLag;
+
+        Gauge.builder("planwise.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Atraso de replicação da réplica de leitura, em segundos")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("planwise.datasource.replica.healthy", this, monitor -> monitor.healthy ? 1 : 0)
+                .description("1 quando as leituras estão sendo enviadas à réplica")
+                .register(meterRegistry);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    @Scheduled(fixedDelayString = "${planwise.datasource.replica.health-check-interval:5s}")
+    public void check() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            boolean withinLag = lagSeconds * 1000 <= maxLag.toMillis();
+            if (withinLag != healthy) {
+                log.info("Réplica de leitura {} (atraso de {} s)", withinLag ? "disponível" : "atrasada, leituras no primário", lagSeconds);
+            }
+            healthy = withinLag;
+        } catch (RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    // Chamado também quando a réplica falha ao entregar uma conexão, sem esperar a próxima verificação
+    public void markDown(Exception cause) {
+        if (healthy) {
+            log.warn("Réplica de leitura indisponível, leituras no primário: {}", cause.getMessage());
+        }
+        healthy = false;
+        lagSeconds = Double.NaN;
+    }
+}
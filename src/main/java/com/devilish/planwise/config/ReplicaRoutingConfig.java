@@ -0,0 +1,65 @@
+package com.devilish.planwise.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Com planwise.datasource.replica.enabled=true a aplicação ganha um terceiro pool, o da réplica de
+// leitura, para onde o RoutingDataSource envia as transações readOnly (ver DataSourceConfig)
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "planwise.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    // Mesmas credenciais do primário quando não informadas
+    @Bean
+    @ConfigurationProperties("planwise.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                              @Value("${planwise.datasource.replica.url}") String url,
+                                              @Value("${planwise.datasource.replica.username:}") String username,
+                                              @Value("${planwise.datasource.replica.password:}") String password,
+                                              @Value("${planwise.datasource.replica.statement-timeout:2m}") Duration statementTimeout) {
+        HikariDataSource dataSource = DataSourceConfig.pool(properties, connectionDetails.getIfAvailable(), "replica", statementTimeout);
+        dataSource.setJdbcUrl(url);
+        if (!username.isEmpty()) {
+            dataSource.setUsername(username);
+        }
+        if (!password.isEmpty()) {
+            dataSource.setPassword(password);
+        }
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                     MeterRegistry meterRegistry,
+                                                     @Value("${planwise.datasource.replica.max-lag:5s}") Duration maxLag) {
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicaDataSource, maxLag, meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    // A janela nunca é menor que max-lag mais um intervalo de verificação: a réplica só é usada com atraso
+    // até max-lag na última verificação, e até a próxima o atraso pode crescer no máximo esse intervalo
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${planwise.datasource.replica.read-your-writes:0s}") Duration window,
+            @Value("${planwise.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${planwise.datasource.replica.health-check-interval:5s}") Duration healthCheckInterval,
+            @Value("${planwise.datasource.replica.read-your-writes-maximum-size:100000}") long maximumSize) {
+        Duration minimum = maxLag.plus(healthCheckInterval);
+        return new ReadYourWritesTracker(window.compareTo(minimum) < 0 ? minimum : window, maximumSize);
+    }
+}
@@ -0,0 +1,15 @@
+package com.devilish.planwise.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca relatórios e exportações: as conexões obtidas durante a chamada vêm do pool de relatórios,
+// com tamanho e statement_timeout próprios, sem disputar o pool das gravações (OLTP)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReportingWorkload {
+}
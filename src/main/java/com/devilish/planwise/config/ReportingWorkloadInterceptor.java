@@ -0,0 +1,27 @@
+package com.devilish.planwise.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Marca a thread durante chamadas anotadas com @ReportingWorkload; chamadas aninhadas mantêm a marca
+public class ReportingWorkloadInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (isActive()) {
+            return invocation.proceed();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
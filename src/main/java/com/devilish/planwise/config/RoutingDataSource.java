@@ -0,0 +1,93 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Escolhe o pool de cada conexão:
+// - transações readOnly vão para a réplica, se configurada, disponível e o usuário não estiver
+//   na janela de read-your-writes;
+// - código anotado com @ReportingWorkload usa o pool de relatórios;
+// - o resto usa o pool OLTP.
+// Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão só é pedida no primeiro
+// comando, quando o flag readOnly da transação já foi registrado.
+public class RoutingDataSource extends AbstractDataSource {
+
+    private final DataSource oltp;
+    private final DataSource reporting;
+    private final DataSource replica;
+    private final ReplicaHealthMonitor healthMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Counter oltpConnections;
+    private final Counter reportingConnections;
+    private final Counter replicaConnections;
+
+    // replica, healthMonitor e readYourWrites são nulos quando não há réplica configurada
+    public RoutingDataSource(DataSource oltp,
+                             DataSource reporting,
+                             DataSource replica,
+                             ReplicaHealthMonitor healthMonitor,
+                             ReadYourWritesTracker readYourWrites,
+                             MeterRegistry meterRegistry) {
+        this.oltp = oltp;
+        this.reporting = reporting;
+        this.replica = replica;
+        this.healthMonitor = healthMonitor;
+        this.readYourWrites = readYourWrites;
+        this.oltpConnections = connectionCounter(meterRegistry, "oltp");
+        this.reportingConnections = connectionCounter(meterRegistry, "reporting");
+        this.replicaConnections = connectionCounter(meterRegistry, "replica");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(target -> target.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = source.open(replica);
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                healthMonitor.markDown(e);
+            }
+        }
+        if (ReportingWorkloadInterceptor.isActive()) {
+            reportingConnections.increment();
+            return source.open(reporting);
+        }
+        oltpConnections.increment();
+        return source.open(oltp);
+    }
+
+    private boolean useReplica() {
+        return replica != null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && healthMonitor.isHealthy()
+                && !readYourWrites.isCurrentUserPinned();
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource target) throws SQLException;
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("planwise.datasource.routed")
+                .description("Conexões entregues por pool de destino")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.devilish.planwise.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+// Funções do pg_trgm nas consultas JPQL, para que as buscas projetem o DTO e ordenem pela relevância
+// numa única consulta. trgm_match é o operador % (não a função): só o operador usa o índice GIN trigram.
+// Registrado em META-INF/services/org.hibernate.boot.model.FunctionContributor.
+public class TrigramFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry()
+                .registerPattern("trgm_match", "(?1 % ?2)", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry()
+                .registerPattern("similarity", "similarity(?1, ?2)", types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -0,0 +1,77 @@
+package com.devilish.planwise.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+// Ativo com spring.threads.virtual.enabled=true: Tomcat, tarefas assíncronas (respostas em
+// streaming) e agendamentos passam a rodar em threads virtuais. Sem o pool de threads do Tomcat
+// para conter a concorrência, as requisições passam por uma admissão com fila limitada e o
+// acesso ao Hikari ganha um limite na frente do pool
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Antes da cadeia do Spring Security: requisições recusadas não validam token nem consultam o banco
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${planwise.admission.max-concurrent:16}") int maxConcurrent,
+            @Value("${planwise.admission.max-waiting:128}") int maxWaiting,
+            @Value("${planwise.admission.acquire-timeout:1s}") Duration acquireTimeout) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                new ConcurrencyLimiter(maxConcurrent, maxWaiting, acquireTimeout), meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment,
+                                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+
+                // 0 = tamanho máximo do pool / um terço do tempo limite do Hikari (1 s no OLTP, 10 s nos
+                // relatórios): quem não consegue vaga falha antes de o Hikari desistir
+                int limit = environment.getProperty("planwise.datasource.concurrency-limit", Integer.class, 0);
+                int maxWaiting = environment.getProperty("planwise.datasource.concurrency-max-waiting", Integer.class, 64);
+                Duration hikariTimeout = Duration.ofMillis(hikari.getConnectionTimeout());
+                Duration acquireTimeout = environment.getProperty("planwise.datasource.concurrency-acquire-timeout",
+                        Duration.class, Duration.ZERO);
+                ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(hikari,
+                        limit > 0 ? limit : hikari.getMaximumPoolSize(), maxWaiting,
+                        acquireTimeout.isPositive() && acquireTimeout.compareTo(hikariTimeout) < 0
+                                ? acquireTimeout : hikariTimeout.dividedBy(3));
+
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("planwise.datasource.concurrency.waiting", dataSource, ConcurrencyLimitingDataSource::getWaiting)
+                            .tag("pool", beanName)
+                            .description("Threads aguardando permissão para obter conexão")
+                            .register(registry);
+                    Gauge.builder("planwise.datasource.concurrency.in-use", dataSource, ConcurrencyLimitingDataSource::getInUse)
+                            .tag("pool", beanName)
+                            .description("Permissões de conexão em uso")
+                            .register(registry);
+                });
+                return dataSource;
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.devilish.planwise.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionEtagInterceptor dataVersionEtagInterceptor;
+
+    // Relatórios e listagens consultados pelos painéis a cada poucos segundos
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(dataVersionEtagInterceptor)
+                .addPathPatterns("/api/reports/**", "/api/expenses/**", "/api/incomes/**",
+                        "/api/goals/**", "/api/categories/**");
+    }
+}
@@ -4,6 +4,9 @@ import com.devilish.planwise.dto.auth.RegisterRequest;
 import com.devilish.planwise.dto.user.UserResponse;
 import com.devilish.planwise.entities.User;
 import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import com.devilish.planwise.services.user.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +15,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,6 +24,9 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final UserService userService;
 
     @PostMapping("/create-admin")
     @PreAuthorize("hasRole('ADMIN')")
@@ -46,12 +53,23 @@ public class AdminController {
     @PostMapping("/promote-user/{userId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserResponse> promoteUserToAdmin(@PathVariable Long userId) {
-        return userRepository.findById(userId)
-            .map(user -> {
-                user.setRole(User.Role.ADMIN);
-                User updatedUser = userRepository.save(user);
-                return ResponseEntity.ok(UserResponse.fromUser(updatedUser));
-            })
-            .orElse(ResponseEntity.notFound().build());
+        if (!userRepository.existsById(userId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Pelo serviço, para que a mudança de perfil invalide a situação em cache
+        return ResponseEntity.ok(userService.updateUserRole(userId, User.Role.ADMIN));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildMonthlyRollups() {
+        return ResponseEntity.ok(monthlyRollupService.rebuild());
+    }
+
+    @PostMapping("/balance-ledger/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildBalanceLedger() {
+        return ResponseEntity.ok(balanceLedgerService.rebuild());
     }
 }
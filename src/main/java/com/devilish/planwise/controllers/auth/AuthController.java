@@ -3,9 +3,12 @@ package com.devilish.planwise.controllers.auth;
 import com.devilish.planwise.dto.auth.AuthResponse;
 import com.devilish.planwise.dto.auth.LoginRequest;
 import com.devilish.planwise.dto.auth.RegisterRequest;
+import com.devilish.planwise.exceptions.ServiceUnavailableException;
 import com.devilish.planwise.services.auth.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +24,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.register(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -31,6 +36,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -103,9 +103,12 @@ public class CategoryController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<CategoryResponse>> searchCategories(@RequestParam String search) {
+    public ResponseEntity<List<CategoryResponse>> searchCategories(
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<CategoryResponse> categories = categoryService.searchCategories(search);
+            List<CategoryResponse> categories = categoryService.searchCategories(search, page, size);
             return ResponseEntity.ok(categories);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
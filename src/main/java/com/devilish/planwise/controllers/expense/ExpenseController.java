@@ -1,10 +1,14 @@
 package com.devilish.planwise.controllers.expense;
 
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.ImportResult;
 import com.devilish.planwise.dto.expense.ExpenseRequest;
 import com.devilish.planwise.dto.expense.ExpenseResponse;
-import com.devilish.planwise.entities.User;
 import com.devilish.planwise.repository.expense.ExpenseRepository;
 import com.devilish.planwise.services.expense.ExpenseService;
+import com.devilish.planwise.services.export.ExportFormat;
+import com.devilish.planwise.services.report.ReportCache;
+import com.devilish.planwise.services.report.ReportKind;
 import com.devilish.planwise.services.user.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -12,13 +16,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -30,6 +40,7 @@ public class ExpenseController {
     private final ExpenseService expenseService;
     private final UserService userService;
     private final ExpenseRepository expenseRepository;
+    private final ReportCache reportCache;
 
     @PostMapping
     public ResponseEntity<ExpenseResponse> createExpense(@Valid @RequestBody ExpenseRequest request) {
@@ -41,6 +52,27 @@ public class ExpenseController {
         }
     }
 
+    // Importação em lote: linhas inválidas são relatadas individualmente sem interromper o arquivo
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResult> importExpenses(@RequestBody List<ExpenseRequest> requests) {
+        try {
+            return ResponseEntity.ok(expenseService.importExpenses(requests));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResult> importExpensesCsv(@RequestParam("file") MultipartFile file) {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(expenseService.importExpenses(csv));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping
     public ResponseEntity<Page<ExpenseResponse>> getAllExpenses(Pageable pageable) {
         try {
@@ -51,16 +83,48 @@ public class ExpenseController {
         }
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<List<ExpenseResponse>> getAllExpensesList() {
+    // Paginação por cursor: envie o nextCursor da resposta anterior para obter a próxima página
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ExpenseResponse>> getAllExpensesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<ExpenseResponse> expenses = expenseService.getAllExpenses();
+            CursorPage<ExpenseResponse> expenses = expenseService.getAllExpensesByCursor(cursor, size);
             return ResponseEntity.ok(expenses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .header("Error-Message", "Erro interno: " + e.getMessage())
-                    .build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Lista completa gravada em streaming como array JSON, sem montar a coleção em memória
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> getAllExpensesList() {
+        Long userId = userService.getCurrentUserId();
+        StreamingResponseBody body = out -> expenseService.exportExpenses(userId, ExportFormat.JSON, out);
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.JSON.getMediaType())
+                .body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+
+        // O usuário é resolvido aqui, pois o corpo é gravado em outra thread
+        Long userId = userService.getCurrentUserId();
+        StreamingResponseBody body = out -> expenseService.exportExpenses(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"despesas." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/category/{categoryId}")
@@ -127,9 +191,12 @@ public class ExpenseController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ExpenseResponse>> searchExpenses(@RequestParam String search) {
+    public ResponseEntity<List<ExpenseResponse>> searchExpenses(
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<ExpenseResponse> expenses = expenseService.searchExpenses(search);
+            List<ExpenseResponse> expenses = expenseService.searchExpenses(search, page, size);
             return ResponseEntity.ok(expenses);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -161,16 +228,21 @@ public class ExpenseController {
     @GetMapping("/stats")
     public ResponseEntity<?> getExpenseStats() {
         try {
-            User currentUser = userService.getCurrentUserEntity();
-            BigDecimal total = expenseService.getTotalExpense();
-            long count = expenseRepository.countByUserIdAndActiveTrue(currentUser.getId());
-            BigDecimal average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+            // Chamadas simultâneas do mesmo usuário compartilham um único cálculo (ReportCache)
+            Map<String, Object> stats = reportCache.get(ReportKind.EXPENSE_STATS, List.of(), () -> {
+                Long userId = userService.getCurrentUserId();
+                BigDecimal total = expenseService.getTotalExpense();
+                long count = expenseRepository.countByUserIdAndActiveTrue(userId);
+                BigDecimal average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+
+                return java.util.Map.of(
+                    "total", total != null ? total : BigDecimal.ZERO,
+                    "count", count,
+                    "average", average
+                );
+            });
             
-            return ResponseEntity.ok(java.util.Map.of(
-                "total", total != null ? total : BigDecimal.ZERO,
-                "count", count,
-                "average", average
-            ));
+            return ResponseEntity.ok(stats);
         } catch (Exception e) {
             log.error("❌ ERRO ao buscar estatísticas de despesas: " + e.getMessage());
             e.printStackTrace();
@@ -1,11 +1,13 @@
 package com.devilish.planwise.controllers.goal;
 
+import com.devilish.planwise.dto.common.CursorPage;
 import com.devilish.planwise.dto.goal.GoalRequest;
 import com.devilish.planwise.dto.goal.GoalResponse;
 import com.devilish.planwise.entities.Goal;
 import com.devilish.planwise.services.goal.GoalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -43,6 +45,21 @@ public class GoalController {
         }
     }
 
+    // Paginação por cursor: envie o nextCursor da resposta anterior para obter a próxima página
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<GoalResponse>> getAllGoalsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<GoalResponse> goals = goalService.getAllGoalsByCursor(cursor, size);
+            return ResponseEntity.ok(goals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<GoalResponse>> getAllGoalsList() {
         try {
@@ -90,6 +107,8 @@ public class GoalController {
         try {
             GoalResponse goal = goalService.updateGoal(id, request);
             return ResponseEntity.ok(goal);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("não encontrada")) {
                 return ResponseEntity.notFound().build();
@@ -105,6 +124,8 @@ public class GoalController {
         try {
             GoalResponse goal = goalService.updateGoalProgress(id, currentValue);
             return ResponseEntity.ok(goal);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("não encontrada")) {
                 return ResponseEntity.notFound().build();
@@ -143,9 +164,12 @@ public class GoalController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<GoalResponse>> searchGoals(@RequestParam String search) {
+    public ResponseEntity<List<GoalResponse>> searchGoals(
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<GoalResponse> goals = goalService.searchGoals(search);
+            List<GoalResponse> goals = goalService.searchGoals(search, page, size);
             return ResponseEntity.ok(goals);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -1,23 +1,33 @@
 package com.devilish.planwise.controllers.income;
 
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.ImportResult;
 import com.devilish.planwise.dto.income.IncomeRequest;
 import com.devilish.planwise.dto.income.IncomeResponse;
-import com.devilish.planwise.entities.User;
 import com.devilish.planwise.repository.income.IncomeRepository;
+import com.devilish.planwise.services.export.ExportFormat;
 import com.devilish.planwise.services.income.IncomeService;
+import com.devilish.planwise.services.report.ReportCache;
+import com.devilish.planwise.services.report.ReportKind;
 import com.devilish.planwise.services.user.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/incomes")
@@ -28,6 +38,7 @@ public class IncomeController {
     private final IncomeService incomeService;
     private final UserService userService;
     private final IncomeRepository incomeRepository;
+    private final ReportCache reportCache;
 
     @PostMapping
     public ResponseEntity<IncomeResponse> createIncome(@Valid @RequestBody IncomeRequest request) {
@@ -39,6 +50,27 @@ public class IncomeController {
         }
     }
 
+    // Importação em lote: linhas inválidas são relatadas individualmente sem interromper o arquivo
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResult> importIncomes(@RequestBody List<IncomeRequest> requests) {
+        try {
+            return ResponseEntity.ok(incomeService.importIncomes(requests));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResult> importIncomesCsv(@RequestParam("file") MultipartFile file) {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(incomeService.importIncomes(csv));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping
     public ResponseEntity<Page<IncomeResponse>> getAllIncomes(Pageable pageable) {
         try {
@@ -50,16 +82,50 @@ public class IncomeController {
         }
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<List<IncomeResponse>> getAllIncomesList() {
+    // Paginação por cursor: envie o nextCursor da resposta anterior para obter a próxima página
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<IncomeResponse>> getAllIncomesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<IncomeResponse> incomes = incomeService.getAllIncomes();
+            CursorPage<IncomeResponse> incomes = incomeService.getAllIncomesByCursor(cursor, size);
             return ResponseEntity.ok(incomes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Lista completa gravada em streaming como array JSON, sem montar a coleção em memória
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> getAllIncomesList() {
+        Long userId = userService.getCurrentUserId();
+        StreamingResponseBody body = out -> incomeService.exportIncomes(userId, ExportFormat.JSON, out);
+        return ResponseEntity.ok()
+                .contentType(ExportFormat.JSON.getMediaType())
+                .body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportIncomes(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // O usuário é resolvido aqui, pois o corpo é gravado em outra thread
+        Long userId = userService.getCurrentUserId();
+        StreamingResponseBody body = out -> incomeService.exportIncomes(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"receitas." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<IncomeResponse>> getIncomesByCategory(@PathVariable Long categoryId) {
         try {
@@ -124,9 +190,12 @@ public class IncomeController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<IncomeResponse>> searchIncomes(@RequestParam String search) {
+    public ResponseEntity<List<IncomeResponse>> searchIncomes(
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<IncomeResponse> incomes = incomeService.searchIncomes(search);
+            List<IncomeResponse> incomes = incomeService.searchIncomes(search, page, size);
             return ResponseEntity.ok(incomes);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -158,16 +227,21 @@ public class IncomeController {
     @GetMapping("/stats")
     public ResponseEntity<?> getIncomeStats() {
         try {
-            User currentUser = userService.getCurrentUserEntity();
-            BigDecimal total = incomeService.getTotalIncome();
-            long count = incomeRepository.countByUserIdAndActiveTrue(currentUser.getId());
-            BigDecimal average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+            // Chamadas simultâneas do mesmo usuário compartilham um único cálculo (ReportCache)
+            Map<String, Object> stats = reportCache.get(ReportKind.INCOME_STATS, List.of(), () -> {
+                Long userId = userService.getCurrentUserId();
+                BigDecimal total = incomeService.getTotalIncome();
+                long count = incomeRepository.countByUserIdAndActiveTrue(userId);
+                BigDecimal average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO;
+
+                return java.util.Map.of(
+                    "total", total != null ? total : BigDecimal.ZERO,
+                    "count", count,
+                    "average", average
+                );
+            });
             
-            return ResponseEntity.ok(java.util.Map.of(
-                "total", total != null ? total : BigDecimal.ZERO,
-                "count", count,
-                "average", average
-            ));
+            return ResponseEntity.ok(stats);
         } catch (Exception e) {
             System.err.println("❌ ERRO ao buscar estatísticas: " + e.getMessage());
             e.printStackTrace();
@@ -1,13 +1,21 @@
 package com.devilish.planwise.controllers.report;
 
+import com.devilish.planwise.dto.report.BalanceRangeResponse;
+import com.devilish.planwise.dto.report.BalanceResponse;
+import com.devilish.planwise.dto.report.CategoryBreakdownResponse;
 import com.devilish.planwise.dto.report.FinancialSummaryResponse;
+import com.devilish.planwise.dto.report.TimeseriesResponse;
+import com.devilish.planwise.services.report.ReportCache;
+import com.devilish.planwise.services.report.ReportKind;
 import com.devilish.planwise.services.report.ReportService;
+import com.devilish.planwise.services.report.TimeseriesGranularity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,11 +25,13 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportCache reportCache;
 
     @GetMapping("/financial-summary")
     public ResponseEntity<FinancialSummaryResponse> getFinancialSummary() {
         try {
-            FinancialSummaryResponse summary = reportService.getFinancialSummary();
+            FinancialSummaryResponse summary = reportCache.get(ReportKind.FINANCIAL_SUMMARY, List.of(),
+                    reportService::getFinancialSummary);
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -33,7 +43,8 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         try {
-            FinancialSummaryResponse summary = reportService.getFinancialSummaryByDateRange(startDate, endDate);
+            FinancialSummaryResponse summary = reportCache.get(ReportKind.FINANCIAL_SUMMARY_BY_DATE_RANGE, List.of(startDate, endDate),
+                    () -> reportService.getFinancialSummaryByDateRange(startDate, endDate));
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -43,7 +54,8 @@ public class ReportController {
     @GetMapping("/goals-summary")
     public ResponseEntity<Map<String, Object>> getGoalsSummary() {
         try {
-            Map<String, Object> summary = reportService.getGoalsSummary();
+            Map<String, Object> summary = reportCache.get(ReportKind.GOALS_SUMMARY, List.of(),
+                    reportService::getGoalsSummary);
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -55,7 +67,8 @@ public class ReportController {
             @RequestParam int year,
             @RequestParam int month) {
         try {
-            Map<String, Object> summary = reportService.getMonthlySummary(year, month);
+            Map<String, Object> summary = reportCache.get(ReportKind.MONTHLY_SUMMARY, List.of(year, month),
+                    () -> reportService.getMonthlySummary(year, month));
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -65,10 +78,74 @@ public class ReportController {
     @GetMapping("/yearly-summary")
     public ResponseEntity<Map<String, Object>> getYearlySummary(@RequestParam int year) {
         try {
-            Map<String, Object> summary = reportService.getYearlySummary(year);
+            Map<String, Object> summary = reportCache.get(ReportKind.YEARLY_SUMMARY, List.of(year),
+                    () -> reportService.getYearlySummary(year));
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // Série gap-filled para gráficos: substitui uma chamada por mês ou o agrupamento no cliente
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeseriesResponse> getTimeseries(
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            TimeseriesGranularity timeseriesGranularity = TimeseriesGranularity.from(granularity);
+            TimeseriesResponse timeseries = reportCache.get(ReportKind.TIMESERIES, List.of(timeseriesGranularity, from, to),
+                    () -> reportService.getTimeseries(timeseriesGranularity, from, to));
+            return ResponseEntity.ok(timeseries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Totais, participação e variação mês a mês por categoria: substitui o agrupamento no cliente
+    @GetMapping("/categories")
+    public ResponseEntity<CategoryBreakdownResponse> getCategoryBreakdown(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            CategoryBreakdownResponse breakdown = reportCache.get(ReportKind.CATEGORY_BREAKDOWN, List.of(from, to),
+                    () -> reportService.getCategoryBreakdown(from, to));
+            return ResponseEntity.ok(breakdown);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Saldo ao fim do dia (hoje, se a data for omitida)
+    @GetMapping("/balance")
+    public ResponseEntity<BalanceResponse> getBalance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            LocalDate balanceDate = date != null ? date : LocalDate.now();
+            BalanceResponse balance = reportCache.get(ReportKind.BALANCE, List.of(balanceDate),
+                    () -> reportService.getBalance(balanceDate));
+            return ResponseEntity.ok(balance);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/balance/date-range")
+    public ResponseEntity<BalanceRangeResponse> getBalanceByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            BalanceRangeResponse balance = reportCache.get(ReportKind.BALANCE_BY_DATE_RANGE, List.of(startDate, endDate),
+                    () -> reportService.getBalanceByDateRange(startDate, endDate));
+            return ResponseEntity.ok(balance);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 }
@@ -4,9 +4,11 @@ import com.devilish.planwise.dto.user.PasswordChangeRequest;
 import com.devilish.planwise.dto.user.UserResponse;
 import com.devilish.planwise.dto.user.UserUpdateRequest;
 import com.devilish.planwise.entities.User;
+import com.devilish.planwise.exceptions.ServiceUnavailableException;
 import com.devilish.planwise.services.user.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -97,6 +99,8 @@ public class UserController {
         try {
             userService.changePassword(request);
             return ResponseEntity.ok("Senha alterada com sucesso");
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         } catch (RuntimeException e) {
             if (e.getMessage().contains("incorreta")) {
                 return ResponseEntity.badRequest().body("Senha atual incorreta");
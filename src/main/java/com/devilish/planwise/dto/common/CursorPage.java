@@ -0,0 +1,37 @@
+package com.devilish.planwise.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static int limitSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    // As consultas buscam size + 1 linhas; a linha extra só indica que existe próxima página
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, PageCursor> cursorOf,
+                                          Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        List<T> content = pageRows.stream().map(mapper).toList();
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+}
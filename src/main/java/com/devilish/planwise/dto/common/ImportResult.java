@@ -0,0 +1,43 @@
+package com.devilish.planwise.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+
+    // Limita o tamanho da resposta em arquivos com muitas linhas inválidas
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addImported(int rows) {
+        totalRows += rows;
+        imported += rows;
+    }
+
+    public void addError(int line, String message) {
+        totalRows++;
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private String message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.devilish.planwise.dto.expense;
 
+import com.devilish.planwise.entities.Category;
 import com.devilish.planwise.entities.Expense;
 import com.devilish.planwise.dto.category.CategoryResponse;
 import lombok.AllArgsConstructor;
@@ -23,7 +24,19 @@ public class ExpenseResponse {
     private Boolean active;
     private CategoryResponse category;
     
+    // Usado pelas projeções JPQL (SELECT new ...): monta a resposta direto das colunas, sem carregar entidades
+    public ExpenseResponse(Long id, String description, BigDecimal value, LocalDate date, LocalDateTime createdAt,
+                           Boolean active, Long categoryId, String categoryName, Category.CategoryType categoryType,
+                           LocalDateTime categoryCreatedAt, Boolean categoryActive) {
+        this(id, description, value, date, createdAt, active,
+                new CategoryResponse(categoryId, categoryName, categoryType, categoryCreatedAt, categoryActive));
+    }
+    
     public static ExpenseResponse fromExpense(Expense expense) {
+        return fromExpense(expense, CategoryResponse.fromCategory(expense.getCategory()));
+    }
+    
+    public static ExpenseResponse fromExpense(Expense expense, CategoryResponse category) {
         return new ExpenseResponse(
             expense.getId(),
             expense.getDescription(),
@@ -31,7 +44,7 @@ public class ExpenseResponse {
             expense.getDate(),
             expense.getCreatedAt(),
             expense.getActive(),
-            CategoryResponse.fromCategory(expense.getCategory())
+            category
         );
     }
 }
@@ -26,4 +26,7 @@ public class GoalRequest {
     
     @NotNull(message = "Data limite é obrigatória")
     private LocalDate deadline;
+    
+    // Opcional: versão lida pelo cliente; se a meta mudou desde então, a atualização é recusada (409)
+    private Long version;
 }
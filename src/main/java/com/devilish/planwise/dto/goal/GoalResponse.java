@@ -23,6 +23,16 @@ public class GoalResponse {
     private LocalDateTime createdAt;
     private Boolean active;
     private BigDecimal progressPercentage;
+    // Enviada de volta em GoalRequest para detectar alterações concorrentes
+    private Long version;
+    
+    // Usado pelas projeções JPQL (SELECT new ...): monta a resposta direto das colunas, sem carregar a entidade
+    public GoalResponse(Long id, String description, BigDecimal targetValue, BigDecimal currentValue,
+                        LocalDate deadline, Goal.GoalStatus status, LocalDateTime createdAt, Boolean active,
+                        Long version) {
+        this(id, description, targetValue, currentValue, deadline, status, createdAt, active,
+                BigDecimal.valueOf(Goal.progressPercentage(currentValue, targetValue)), version);
+    }
     
     public static GoalResponse fromGoal(Goal goal) {
         return new GoalResponse(
@@ -34,7 +44,8 @@ public class GoalResponse {
             goal.getStatus(),
             goal.getCreatedAt(),
             goal.getActive(),
-            BigDecimal.valueOf(goal.getProgressPercentage())
+            BigDecimal.valueOf(goal.getProgressPercentage()),
+            goal.getVersion()
         );
     }
 }
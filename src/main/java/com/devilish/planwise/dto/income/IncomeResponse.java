@@ -1,5 +1,6 @@
 package com.devilish.planwise.dto.income;
 
+import com.devilish.planwise.entities.Category;
 import com.devilish.planwise.entities.Income;
 import com.devilish.planwise.dto.category.CategoryResponse;
 import lombok.AllArgsConstructor;
@@ -23,7 +24,19 @@ public class IncomeResponse {
     private Boolean active;
     private CategoryResponse category;
     
+    // Usado pelas projeções JPQL (SELECT new ...): monta a resposta direto das colunas, sem carregar entidades
+    public IncomeResponse(Long id, String description, BigDecimal value, LocalDate date, LocalDateTime createdAt,
+                          Boolean active, Long categoryId, String categoryName, Category.CategoryType categoryType,
+                          LocalDateTime categoryCreatedAt, Boolean categoryActive) {
+        this(id, description, value, date, createdAt, active,
+                new CategoryResponse(categoryId, categoryName, categoryType, categoryCreatedAt, categoryActive));
+    }
+    
     public static IncomeResponse fromIncome(Income income) {
+        return fromIncome(income, CategoryResponse.fromCategory(income.getCategory()));
+    }
+    
+    public static IncomeResponse fromIncome(Income income, CategoryResponse category) {
         return new IncomeResponse(
             income.getId(),
             income.getDescription(),
@@ -31,7 +44,7 @@ public class IncomeResponse {
             income.getDate(),
             income.getCreatedAt(),
             income.getActive(),
-            CategoryResponse.fromCategory(income.getCategory())
+            category
         );
     }
 }
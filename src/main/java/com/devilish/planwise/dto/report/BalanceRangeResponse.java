@@ -0,0 +1,21 @@
+package com.devilish.planwise.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// openingBalance: saldo na véspera de startDate; closingBalance: saldo ao fim de endDate
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceRangeResponse {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal netChange;
+}
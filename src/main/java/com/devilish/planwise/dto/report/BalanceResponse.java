@@ -0,0 +1,18 @@
+package com.devilish.planwise.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Saldo acumulado ao fim do dia
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceResponse {
+
+    private LocalDate date;
+    private BigDecimal balance;
+}
@@ -0,0 +1,66 @@
+package com.devilish.planwise.dto.report;
+
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.repository.report.CategoryMonth;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryBreakdownResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private List<CategoryTotals> categories;
+
+    // Totais da categoria no período; share é o percentual sobre o total do mesmo tipo
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotals {
+
+        private Long categoryId;
+        private String categoryName;
+        private Category.CategoryType type;
+        private BigDecimal total;
+        private long count;
+        private BigDecimal share;
+        private List<MonthChange> months;
+
+        public static CategoryTotals fromCategoryMonth(CategoryMonth month) {
+            return new CategoryTotals(month.getCategoryId(), month.getCategoryName(),
+                    Category.CategoryType.valueOf(month.getType()), month.getCategoryTotal(),
+                    month.getCategoryCount(), month.getShare(), new ArrayList<>());
+        }
+    }
+
+    // total e count cobrem só a parte do mês dentro do período; previousTotal é o mês anterior inteiro.
+    // change e changePercent comparam meses de calendário completos: são nulos no primeiro e no último
+    // mês quando o período os cobre em parte, e changePercent também quando o mês anterior não teve movimento
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthChange {
+
+        private LocalDate month;
+        private BigDecimal total;
+        private long count;
+        private BigDecimal previousTotal;
+        private BigDecimal change;
+        private BigDecimal changePercent;
+
+        public static MonthChange fromCategoryMonth(CategoryMonth month) {
+            return new MonthChange(month.getMonth(), month.getTotal(), month.getCount(),
+                    month.getPreviousTotal(), month.getChange(), month.getChangePercent());
+        }
+    }
+}
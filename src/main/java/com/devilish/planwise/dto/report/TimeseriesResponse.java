@@ -0,0 +1,38 @@
+package com.devilish.planwise.dto.report;
+
+import com.devilish.planwise.repository.report.TimeseriesPoint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeseriesResponse {
+
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+
+        private LocalDate bucket;
+        private BigDecimal income;
+        private BigDecimal expense;
+        private BigDecimal balance;
+        private BigDecimal cumulativeBalance;
+
+        public static Point fromTimeseriesPoint(TimeseriesPoint point) {
+            return new Point(point.getBucket(), point.getIncome(), point.getExpense(),
+                    point.getBalance(), point.getCumulativeBalance());
+        }
+    }
+}
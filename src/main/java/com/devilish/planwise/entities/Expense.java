@@ -22,8 +22,10 @@ import java.time.LocalDateTime;
 @Setter
 public class Expense {
 
+    // Sequência com pooled optimizer: ids reservados em blocos, permitindo INSERTs em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "tb_expense_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Descrição é obrigatória")
@@ -52,7 +54,7 @@ public class Expense {
     private User user;
 
     // Relacionamento com Category
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 }
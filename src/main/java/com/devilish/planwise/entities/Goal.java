@@ -56,6 +56,11 @@ public class Goal {
     @Column(name = "ativo")
     private Boolean active = true;
 
+    // Controle otimista: atualizações com versão desatualizada falham em vez de sobrescrever
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Relacionamento com User
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -67,6 +72,11 @@ public class Goal {
 
     // Método para calcular o progresso da meta
     public Double getProgressPercentage() {
+        return progressPercentage(currentValue, targetValue);
+    }
+
+    // Compartilhado com as projeções de leitura, que não carregam a entidade
+    public static double progressPercentage(BigDecimal currentValue, BigDecimal targetValue) {
         if (targetValue == null || targetValue.compareTo(BigDecimal.ZERO) == 0) {
             return 0.0;
         }
@@ -23,8 +23,10 @@ import java.time.LocalDateTime;
 @Setter
 public class Income {
 
+    // Sequência com pooled optimizer: ids reservados em blocos, permitindo INSERTs em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "income_seq")
+    @SequenceGenerator(name = "income_seq", sequenceName = "tb_income_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Descrição é obrigatória")
@@ -0,0 +1,49 @@
+package com.devilish.planwise.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "tb_monthly_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_monthly_rollup_key",
+                                             columnNames = {"user_id", "category_id", "year_month", "type"}))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class MonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Relacionamento com User
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Relacionamento com Category
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    // Sempre o primeiro dia do mês
+    @Column(name = "year_month", nullable = false)
+    private LocalDate yearMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category.CategoryType type;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private Long count = 0L;
+}
@@ -0,0 +1,9 @@
+package com.devilish.planwise.events;
+
+// Publicado pelos serviços sempre que os dados financeiros de um usuário são alterados
+public record UserDataChangedEvent(Long userId, Source source) {
+
+    public enum Source {
+        EXPENSE, INCOME, GOAL, CATEGORY
+    }
+}
@@ -0,0 +1,5 @@
+package com.devilish.planwise.events;
+
+// Publicado quando um usuário é ativado, desativado, removido ou muda de perfil
+public record UserStatusChangedEvent(Long userId) {
+}
@@ -1,5 +1,6 @@
 package com.devilish.planwise.repository.category;
 
+import com.devilish.planwise.dto.category.CategoryResponse;
 import com.devilish.planwise.entities.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,18 +15,34 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     
-    List<Category> findByUserIdAndActiveTrueOrderByNameAsc(Long userId);
+    // Leituras projetadas direto no DTO, sem hidratar entidades
+    String RESPONSE_SELECT = "SELECT new com.devilish.planwise.dto.category.CategoryResponse(" +
+            "c.id, c.name, c.type, c.createdAt, c.active) " +
+            "FROM Category c ";
     
-    Page<Category> findByUserIdAndActiveTrueOrderByNameAsc(Long userId, Pageable pageable);
+    @Query(RESPONSE_SELECT + "WHERE c.user.id = :userId AND c.active = true ORDER BY c.name ASC, c.id ASC")
+    List<CategoryResponse> findByUserIdAndActiveTrueOrderByNameAsc(@Param("userId") Long userId);
     
-    List<Category> findByUserIdAndTypeAndActiveTrueOrderByNameAsc(Long userId, Category.CategoryType type);
+    @Query(value = RESPONSE_SELECT + "WHERE c.user.id = :userId AND c.active = true ORDER BY c.name ASC, c.id ASC",
+           countQuery = "SELECT COUNT(c) FROM Category c WHERE c.user.id = :userId AND c.active = true")
+    Page<CategoryResponse> findByUserIdAndActiveTrueOrderByNameAsc(@Param("userId") Long userId, Pageable pageable);
     
     Optional<Category> findByIdAndUserIdAndActiveTrue(Long id, Long userId);
     
+    @Query(RESPONSE_SELECT + "WHERE c.id = :id AND c.user.id = :userId AND c.active = true")
+    Optional<CategoryResponse> findResponseById(@Param("id") Long id, @Param("userId") Long userId);
+    
     boolean existsByNameAndUserIdAndActiveTrue(String name, Long userId);
     
-    @Query("SELECT c FROM Category c WHERE c.user.id = :userId AND c.active = true AND " +
-           "(LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Category> findByUserAndNameContainingIgnoreCaseAndActiveTrue(@Param("userId") Long userId, 
-                                                                      @Param("search") String search);
+    // Busca por similaridade (pg_trgm) projetada direto no DTO, já na ordem de relevância e limitada pela página.
+    // ilike e trgm_match (operador %) usam o índice GIN trigram; ver TrigramFunctionContributor
+    @Query(RESPONSE_SELECT + "WHERE c.user.id = :userId AND c.active = true " +
+           "AND (c.name ilike ('%' || :pattern || '%') escape '\\' OR trgm_match(c.name, :term)) " +
+           "ORDER BY similarity(c.name, :term) DESC, c.name ASC, c.id ASC " +
+           "LIMIT :limit OFFSET :offset")
+    List<CategoryResponse> searchByName(@Param("userId") Long userId,
+                                        @Param("term") String term,
+                                        @Param("pattern") String pattern,
+                                        @Param("limit") int limit,
+                                        @Param("offset") int offset);
 }
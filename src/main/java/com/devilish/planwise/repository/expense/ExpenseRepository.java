@@ -1,10 +1,15 @@
 package com.devilish.planwise.repository.expense;
 
+import com.devilish.planwise.dto.expense.ExpenseResponse;
 import com.devilish.planwise.entities.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,23 +17,58 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     
-    Page<Expense> findByUserIdAndActiveTrueOrderByDateDesc(Long userId, Pageable pageable);
+    // Leituras projetadas direto no DTO: uma única consulta com a categoria, sem hidratar entidades
+    String RESPONSE_SELECT = "SELECT new com.devilish.planwise.dto.expense.ExpenseResponse(" +
+            "e.id, e.description, e.value, e.date, e.createdAt, e.active, " +
+            "c.id, c.name, c.type, c.createdAt, c.active) " +
+            "FROM Expense e JOIN e.category c ";
 
-    List<Expense> findByUserIdAndActiveTrueOrderByDateDesc(Long userId);
+    @Query(value = RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true ORDER BY e.date DESC, e.id DESC",
+           countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.user.id = :userId AND e.active = true")
+    Page<ExpenseResponse> findByUserIdAndActiveTrueOrderByDateDesc(@Param("userId") Long userId, Pageable pageable);
 
-    List<Expense> findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(Long userId, Long categoryId);
+    // Paginação por cursor (keyset): busca pela posição (date, id) sem OFFSET nem COUNT
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true " +
+           "AND (e.date, e.id) < (:date, :id) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findKeysetPageAfter(@Param("userId") Long userId,
+                                              @Param("date") LocalDate date,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    // Exportação em streaming: cursor do banco com fetch size fixo; como só DTOs são lidos,
+    // o contexto de persistência não cresce com o número de registros
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true " +
+           "ORDER BY e.date DESC, e.id DESC")
+    Stream<ExpenseResponse> streamByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND c.id = :categoryId AND e.active = true " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(@Param("userId") Long userId,
+                                                                                @Param("categoryId") Long categoryId);
+
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true " +
+           "AND e.date BETWEEN :startDate AND :endDate " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(@Param("userId") Long userId,
+                                                                                 @Param("startDate") LocalDate startDate,
+                                                                                 @Param("endDate") LocalDate endDate);
+
+    @Query(RESPONSE_SELECT + "WHERE e.id = :id AND e.user.id = :userId AND e.active = true")
+    Optional<ExpenseResponse> findResponseById(@Param("id") Long id, @Param("userId") Long userId);
 
-    List<Expense> findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(Long userId, LocalDate startDate, LocalDate endDate);
-    
     Optional<Expense> findByIdAndUserIdAndActiveTrue(Long id, Long userId);
     
-    @Query("SELECT e FROM Expense e JOIN FETCH e.category c WHERE e.id = :id AND e.user.id = :userId AND e.active = true")
-    Optional<Expense> findByIdAndUserIdAndActiveTrueWithCategory(@Param("id") Long id, @Param("userId") Long userId);
-    
     @Query("SELECT SUM(e.value) FROM Expense e WHERE e.user.id = :userId AND e.active = true")
     BigDecimal getTotalExpenseByUser(@Param("userId") Long userId);
     
@@ -38,12 +78,17 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
                                                 @Param("startDate") LocalDate startDate, 
                                                 @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.active = true AND " +
-           "(LOWER(e.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Expense> findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(@Param("userId") Long userId, 
-                                                                            @Param("search") String search);
+    // Busca por similaridade (pg_trgm) projetada direto no DTO, já na ordem de relevância e limitada pela página.
+    // ilike e trgm_match (operador %) usam o índice GIN trigram; ver TrigramFunctionContributor
+    @Query(RESPONSE_SELECT + "WHERE e.user.id = :userId AND e.active = true " +
+           "AND (e.description ilike ('%' || :pattern || '%') escape '\\' OR trgm_match(e.description, :term)) " +
+           "ORDER BY similarity(e.description, :term) DESC, e.date DESC, e.id DESC " +
+           "LIMIT :limit OFFSET :offset")
+    List<ExpenseResponse> searchByDescription(@Param("userId") Long userId,
+                                              @Param("term") String term,
+                                              @Param("pattern") String pattern,
+                                              @Param("limit") int limit,
+                                              @Param("offset") int offset);
     
     long countByUserIdAndActiveTrue(Long userId);
-    
-    long countByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(Long userId, LocalDate startDate, LocalDate endDate);
 }
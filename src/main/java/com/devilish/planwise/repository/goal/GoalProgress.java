@@ -0,0 +1,29 @@
+package com.devilish.planwise.repository.goal;
+
+import com.devilish.planwise.entities.Goal;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Linha devolvida pelo UPDATE ... RETURNING do incremento de progresso
+public interface GoalProgress {
+
+    Long getId();
+
+    String getDescription();
+
+    BigDecimal getTargetValue();
+
+    BigDecimal getCurrentValue();
+
+    LocalDate getDeadline();
+
+    Goal.GoalStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    Boolean getActive();
+
+    Long getVersion();
+}
@@ -1,36 +1,112 @@
 package com.devilish.planwise.repository.goal;
 
+import com.devilish.planwise.dto.goal.GoalResponse;
 import com.devilish.planwise.entities.Goal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     
-    Page<Goal> findByUserIdAndActiveTrueOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    // Leituras projetadas direto no DTO, sem hidratar entidades
+    String RESPONSE_SELECT = "SELECT new com.devilish.planwise.dto.goal.GoalResponse(" +
+            "g.id, g.description, g.targetValue, g.currentValue, g.deadline, g.status, g.createdAt, g.active, " +
+            "g.version) " +
+            "FROM Goal g ";
+
+    @Query(value = RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.active = true ORDER BY g.createdAt DESC, g.id DESC",
+           countQuery = "SELECT COUNT(g) FROM Goal g WHERE g.user.id = :userId AND g.active = true")
+    Page<GoalResponse> findByUserIdAndActiveTrueOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
+
+    // Paginação por cursor (keyset): busca pela posição (createdAt, id) sem OFFSET nem COUNT
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.active = true " +
+           "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GoalResponse> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.active = true " +
+           "AND (g.createdAt, g.id) < (:createdAt, :id) " +
+           "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GoalResponse> findKeysetPageAfter(@Param("userId") Long userId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+    
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.active = true ORDER BY g.createdAt DESC, g.id DESC")
+    List<GoalResponse> findByUserIdAndActiveTrueOrderByCreatedAtDesc(@Param("userId") Long userId);
     
-    List<Goal> findByUserIdAndActiveTrueOrderByCreatedAtDesc(Long userId);
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.status = :status AND g.active = true " +
+           "ORDER BY g.createdAt DESC, g.id DESC")
+    List<GoalResponse> findByUserIdAndStatusAndActiveTrueOrderByCreatedAtDesc(@Param("userId") Long userId,
+                                                                              @Param("status") Goal.GoalStatus status);
     
-    List<Goal> findByUserIdAndStatusAndActiveTrueOrderByCreatedAtDesc(Long userId, Goal.GoalStatus status);
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.deadline < :date AND g.status <> :status " +
+           "AND g.active = true ORDER BY g.deadline ASC")
+    List<GoalResponse> findExpiredResponses(@Param("userId") Long userId,
+                                            @Param("date") LocalDate date,
+                                            @Param("status") Goal.GoalStatus status);
     
-    List<Goal> findByUserIdAndDeadlineBeforeAndStatusNotAndActiveTrueOrderByDeadlineAsc(Long userId, 
-                                                                                         LocalDate date, 
-                                                                                         Goal.GoalStatus status);
+    // Expiração manual das metas de um usuário em um único UPDATE
+    @Modifying
+    @Query(value = "UPDATE tb_goal SET status = 'VENCIDA', version = version + 1 " +
+                   "WHERE user_id = :userId AND ativo = true AND status = 'EM_ANDAMENTO' AND deadline < :today",
+           nativeQuery = true)
+    int expireOverdueByUser(@Param("userId") Long userId, @Param("today") LocalDate today);
+    
+    // Expiração em blocos para todos os usuários (tarefa agendada); SKIP LOCKED não espera por metas
+    // sendo alteradas, que ficam para a próxima execução. Devolve o usuário de cada meta expirada.
+    @Query(value = "WITH expired AS (" +
+                   "SELECT id FROM tb_goal WHERE ativo = true AND status = 'EM_ANDAMENTO' AND deadline < :today " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "UPDATE tb_goal g SET status = 'VENCIDA', version = g.version + 1 " +
+                   "FROM expired WHERE g.id = expired.id " +
+                   "RETURNING g.user_id",
+           nativeQuery = true)
+    List<Long> expireOverdueChunk(@Param("today") LocalDate today, @Param("limit") int limit);
+    
+    @Query(RESPONSE_SELECT + "WHERE g.id = :id AND g.user.id = :userId AND g.active = true")
+    Optional<GoalResponse> findResponseById(@Param("id") Long id, @Param("userId") Long userId);
     
     Optional<Goal> findByIdAndUserIdAndActiveTrue(Long id, Long userId);
     
-    @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.active = true AND " +
-           "(LOWER(g.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Goal> findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(@Param("userId") Long userId, 
-                                                                         @Param("search") String search);
+    // Busca por similaridade (pg_trgm) projetada direto no DTO, já na ordem de relevância e limitada pela página.
+    // ilike e trgm_match (operador %) usam o índice GIN trigram; ver TrigramFunctionContributor
+    @Query(RESPONSE_SELECT + "WHERE g.user.id = :userId AND g.active = true " +
+           "AND (g.description ilike ('%' || :pattern || '%') escape '\\' OR trgm_match(g.description, :term)) " +
+           "ORDER BY similarity(g.description, :term) DESC, g.createdAt DESC, g.id DESC " +
+           "LIMIT :limit OFFSET :offset")
+    List<GoalResponse> searchByDescription(@Param("userId") Long userId,
+                                           @Param("term") String term,
+                                           @Param("pattern") String pattern,
+                                           @Param("limit") int limit,
+                                           @Param("offset") int offset);
+    
+    // Incremento atômico: soma e recalcula o status no próprio UPDATE, sem leitura prévia.
+    // Contribuições simultâneas são serializadas pelo lock de linha e nenhuma se perde.
+    @Query(value = "UPDATE tb_goal SET current_value = current_value + :amount, " +
+                   "status = CASE WHEN current_value + :amount >= target_value THEN 'ATINGIDA' " +
+                   "WHEN deadline < :today THEN 'VENCIDA' ELSE 'EM_ANDAMENTO' END, " +
+                   "version = version + 1 " +
+                   "WHERE id = :id AND user_id = :userId AND ativo = true " +
+                   "RETURNING id AS \"id\", description AS \"description\", target_value AS \"targetValue\", " +
+                   "current_value AS \"currentValue\", deadline AS \"deadline\", status AS \"status\", " +
+                   "data_criacao AS \"createdAt\", ativo AS \"active\", version AS \"version\"",
+           nativeQuery = true)
+    Optional<GoalProgress> addProgress(@Param("id") Long id,
+                                       @Param("userId") Long userId,
+                                       @Param("amount") BigDecimal amount,
+                                       @Param("today") LocalDate today);
     
     @Query("SELECT COUNT(g) FROM Goal g WHERE g.user.id = :userId AND g.status = :status AND g.active = true")
     Long countByUserAndStatusAndActiveTrue(@Param("userId") Long userId, @Param("status") Goal.GoalStatus status);
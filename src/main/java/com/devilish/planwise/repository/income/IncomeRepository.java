@@ -1,10 +1,15 @@
 package com.devilish.planwise.repository.income;
 
+import com.devilish.planwise.dto.income.IncomeResponse;
 import com.devilish.planwise.entities.Income;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,18 +17,56 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IncomeRepository extends JpaRepository<Income, Long> {
     
-    Page<Income> findByUserIdAndActiveTrueOrderByDateDesc(Long userId, Pageable pageable);
+    // Leituras projetadas direto no DTO: uma única consulta com a categoria, sem hidratar entidades
+    String RESPONSE_SELECT = "SELECT new com.devilish.planwise.dto.income.IncomeResponse(" +
+            "i.id, i.description, i.value, i.date, i.createdAt, i.active, " +
+            "c.id, c.name, c.type, c.createdAt, c.active) " +
+            "FROM Income i JOIN i.category c ";
 
-    List<Income> findByUserIdAndActiveTrueOrderByDateDesc(Long userId);
+    @Query(value = RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true ORDER BY i.date DESC, i.id DESC",
+           countQuery = "SELECT COUNT(i) FROM Income i WHERE i.user.id = :userId AND i.active = true")
+    Page<IncomeResponse> findByUserIdAndActiveTrueOrderByDateDesc(@Param("userId") Long userId, Pageable pageable);
 
-    List<Income> findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(Long userId, Long categoryId);
+    // Paginação por cursor (keyset): busca pela posição (date, id) sem OFFSET nem COUNT
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeResponse> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true " +
+           "AND (i.date, i.id) < (:date, :id) " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeResponse> findKeysetPageAfter(@Param("userId") Long userId,
+                                             @Param("date") LocalDate date,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    // Exportação em streaming: cursor do banco com fetch size fixo; como só DTOs são lidos,
+    // o contexto de persistência não cresce com o número de registros
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true " +
+           "ORDER BY i.date DESC, i.id DESC")
+    Stream<IncomeResponse> streamByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND c.id = :categoryId AND i.active = true " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeResponse> findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(@Param("userId") Long userId,
+                                                                               @Param("categoryId") Long categoryId);
+
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true " +
+           "AND i.date BETWEEN :startDate AND :endDate " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeResponse> findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(@Param("userId") Long userId,
+                                                                                @Param("startDate") LocalDate startDate,
+                                                                                @Param("endDate") LocalDate endDate);
+
+    @Query(RESPONSE_SELECT + "WHERE i.id = :id AND i.user.id = :userId AND i.active = true")
+    Optional<IncomeResponse> findResponseById(@Param("id") Long id, @Param("userId") Long userId);
 
-    List<Income> findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(Long userId, LocalDate startDate, LocalDate endDate);
-    
     Optional<Income> findByIdAndUserIdAndActiveTrue(Long id, Long userId);
     
     @Query("SELECT SUM(i.value) FROM Income i WHERE i.user.id = :userId AND i.active = true")
@@ -35,12 +78,17 @@ public interface IncomeRepository extends JpaRepository<Income, Long> {
                                                @Param("startDate") LocalDate startDate, 
                                                @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT i FROM Income i WHERE i.user.id = :userId AND i.active = true AND " +
-           "(LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Income> findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(@Param("userId") Long userId, 
-                                                                           @Param("search") String search);
+    // Busca por similaridade (pg_trgm) projetada direto no DTO, já na ordem de relevância e limitada pela página.
+    // ilike e trgm_match (operador %) usam o índice GIN trigram; ver TrigramFunctionContributor
+    @Query(RESPONSE_SELECT + "WHERE i.user.id = :userId AND i.active = true " +
+           "AND (i.description ilike ('%' || :pattern || '%') escape '\\' OR trgm_match(i.description, :term)) " +
+           "ORDER BY similarity(i.description, :term) DESC, i.date DESC, i.id DESC " +
+           "LIMIT :limit OFFSET :offset")
+    List<IncomeResponse> searchByDescription(@Param("userId") Long userId,
+                                             @Param("term") String term,
+                                             @Param("pattern") String pattern,
+                                             @Param("limit") int limit,
+                                             @Param("offset") int offset);
     
     long countByUserIdAndActiveTrue(Long userId);
-    
-    long countByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(Long userId, LocalDate startDate, LocalDate endDate);
 }
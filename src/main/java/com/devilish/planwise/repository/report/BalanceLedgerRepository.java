@@ -0,0 +1,80 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.entities.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface BalanceLedgerRepository extends org.springframework.data.repository.Repository<User, Long> {
+
+    // Saldo ao fim do dia: a linha mais recente até a data (uma busca pela chave primária).
+    // A data fica entre BALANCE_AS_OF e BALANCE_AS_OF_END.
+    String BALANCE_AS_OF = "COALESCE((SELECT l.balance FROM tb_balance_ledger l WHERE l.user_id = :userId AND l.day <= ";
+    String BALANCE_AS_OF_END = " ORDER BY l.day DESC LIMIT 1), 0)";
+
+    // Serializa as gravações do mesmo usuário até o fim da transação: o recálculo do sufixo
+    // precisa enxergar os dias gravados por outras transações do usuário
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(:namespace, " +
+                   "CAST(:userId % 2147483648 AS integer))) l",
+           nativeQuery = true)
+    long lockUser(@Param("namespace") int namespace, @Param("userId") Long userId);
+
+    // Só acumula o saldo líquido do dia; o saldo acumulado é corrigido por recomputeFrom
+    @Modifying
+    @Query(value = "INSERT INTO tb_balance_ledger (user_id, day, delta, balance) " +
+                   "VALUES (:userId, :day, :amount, 0) " +
+                   "ON CONFLICT (user_id, day) DO UPDATE SET delta = tb_balance_ledger.delta + EXCLUDED.delta",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("day") LocalDate day,
+                   @Param("amount") BigDecimal amount);
+
+    // Recalcula apenas os dias a partir de :day, partindo do saldo do último dia anterior
+    @Modifying
+    @Query(value = "UPDATE tb_balance_ledger l SET balance = s.balance " +
+                   "FROM (SELECT x.day, " +
+                   "             COALESCE((SELECT p.balance FROM tb_balance_ledger p " +
+                   "                       WHERE p.user_id = :userId AND p.day < :day " +
+                   "                       ORDER BY p.day DESC LIMIT 1), 0) " +
+                   "             + SUM(x.delta) OVER (ORDER BY x.day) AS balance " +
+                   "      FROM tb_balance_ledger x WHERE x.user_id = :userId AND x.day >= :day) s " +
+                   "WHERE l.user_id = :userId AND l.day = s.day AND l.balance <> s.balance",
+           nativeQuery = true)
+    int recomputeFrom(@Param("userId") Long userId, @Param("day") LocalDate day);
+
+    @Query(value = "SELECT " + BALANCE_AS_OF + ":date" + BALANCE_AS_OF_END, nativeQuery = true)
+    BigDecimal getBalanceAsOf(@Param("userId") Long userId, @Param("date") LocalDate date);
+
+    // Saldo do período = saldo no fim menos saldo na véspera do início: duas buscas pontuais
+    @Query(value = "SELECT " + BALANCE_AS_OF + "CAST(:startDate AS date) - 1" + BALANCE_AS_OF_END + " AS \"openingBalance\", " +
+                   BALANCE_AS_OF + ":endDate" + BALANCE_AS_OF_END + " AS \"closingBalance\"",
+           nativeQuery = true)
+    BalanceRange getBalanceRange(@Param("userId") Long userId,
+                                 @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate);
+
+    // Apenas até o fim da transação atual (reconstruções completas)
+    @Modifying
+    @Query(value = "SET LOCAL statement_timeout = 0", nativeQuery = true)
+    int disableStatementTimeout();
+
+    @Modifying
+    @Query(value = "DELETE FROM tb_balance_ledger", nativeQuery = true)
+    int deleteAllEntries();
+
+    @Modifying
+    @Query(value = "INSERT INTO tb_balance_ledger (user_id, day, delta, balance) " +
+                   "SELECT t.user_id, t.day, SUM(t.amount), " +
+                   "SUM(SUM(t.amount)) OVER (PARTITION BY t.user_id ORDER BY t.day) " +
+                   "FROM (SELECT i.user_id, i.date AS day, i.value AS amount FROM tb_income i WHERE i.ativo = true " +
+                   "      UNION ALL " +
+                   "      SELECT e.user_id, e.date, -e.value FROM tb_expense e WHERE e.ativo = true) t " +
+                   "GROUP BY t.user_id, t.day",
+           nativeQuery = true)
+    int rebuildEntries();
+}
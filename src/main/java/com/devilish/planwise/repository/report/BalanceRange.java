@@ -0,0 +1,11 @@
+package com.devilish.planwise.repository.report;
+
+import java.math.BigDecimal;
+
+// Saldo na véspera do início do período e no fim do período
+public interface BalanceRange {
+
+    BigDecimal getOpeningBalance();
+
+    BigDecimal getClosingBalance();
+}
@@ -0,0 +1,33 @@
+package com.devilish.planwise.repository.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Um mês de uma categoria no período, com a variação sobre o mês anterior e os totais da categoria
+// no período inteiro (repetidos em todos os meses da categoria)
+public interface CategoryMonth {
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    String getType();
+
+    LocalDate getMonth();
+
+    BigDecimal getTotal();
+
+    Long getCount();
+
+    BigDecimal getPreviousTotal();
+
+    BigDecimal getChange();
+
+    BigDecimal getChangePercent();
+
+    BigDecimal getCategoryTotal();
+
+    Long getCategoryCount();
+
+    BigDecimal getShare();
+}
@@ -0,0 +1,19 @@
+package com.devilish.planwise.repository.report;
+
+import java.math.BigDecimal;
+
+// Projeção com os totais agregados de receitas e despesas de um usuário
+public interface FinancialTotals {
+
+    BigDecimal getTotalIncome();
+
+    BigDecimal getTotalExpense();
+
+    BigDecimal getBalance();
+
+    Long getIncomeCount();
+
+    Long getExpenseCount();
+
+    Long getTotalTransactions();
+}
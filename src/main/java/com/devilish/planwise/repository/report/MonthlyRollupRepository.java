@@ -0,0 +1,54 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.entities.MonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO tb_monthly_rollup (user_id, category_id, year_month, type, total, count) " +
+                   "VALUES (:userId, :categoryId, :yearMonth, :type, :amount, :count) " +
+                   "ON CONFLICT (user_id, category_id, year_month, type) DO UPDATE SET " +
+                   "total = tb_monthly_rollup.total + EXCLUDED.total, " +
+                   "count = tb_monthly_rollup.count + EXCLUDED.count",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("categoryId") Long categoryId,
+                   @Param("yearMonth") LocalDate yearMonth,
+                   @Param("type") String type,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    // Apenas até o fim da transação atual (reconstruções completas)
+    @Modifying
+    @Query(value = "SET LOCAL statement_timeout = 0", nativeQuery = true)
+    int disableStatementTimeout();
+
+    @Modifying
+    @Query(value = "DELETE FROM tb_monthly_rollup", nativeQuery = true)
+    int deleteAllRollups();
+
+    @Modifying
+    @Query(value = "INSERT INTO tb_monthly_rollup (user_id, category_id, year_month, type, total, count) " +
+                   "SELECT e.user_id, e.category_id, CAST(date_trunc('month', e.date) AS date), 'DESPESA', " +
+                   "SUM(e.value), COUNT(*) FROM tb_expense e WHERE e.ativo = true " +
+                   "GROUP BY e.user_id, e.category_id, CAST(date_trunc('month', e.date) AS date)",
+           nativeQuery = true)
+    int rebuildExpenseRollups();
+
+    @Modifying
+    @Query(value = "INSERT INTO tb_monthly_rollup (user_id, category_id, year_month, type, total, count) " +
+                   "SELECT i.user_id, i.category_id, CAST(date_trunc('month', i.date) AS date), 'RECEITA', " +
+                   "SUM(i.value), COUNT(*) FROM tb_income i WHERE i.ativo = true " +
+                   "GROUP BY i.user_id, i.category_id, CAST(date_trunc('month', i.date) AS date)",
+           nativeQuery = true)
+    int rebuildIncomeRollups();
+}
@@ -0,0 +1,166 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.entities.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReportRepository extends org.springframework.data.repository.Repository<User, Long> {
+
+    // Completa a CTE "t" (bucket, income, expense) das séries temporais: soma por intervalo e
+    // preenche com zero os intervalos sem movimento, gerados por generate_series
+    String TIMESERIES_SELECT = "totals AS (SELECT t.bucket, SUM(t.income) AS income, SUM(t.expense) AS expense " +
+                               "            FROM t GROUP BY t.bucket) " +
+                               "SELECT CAST(s.bucket AS date) AS \"bucket\", " +
+                               "COALESCE(totals.income, 0) AS \"income\", " +
+                               "COALESCE(totals.expense, 0) AS \"expense\", " +
+                               "COALESCE(totals.income, 0) - COALESCE(totals.expense, 0) AS \"balance\", " +
+                               "SUM(COALESCE(totals.income, 0) - COALESCE(totals.expense, 0)) OVER (ORDER BY s.bucket) AS \"cumulativeBalance\" " +
+                               "FROM generate_series(CAST(:firstBucket AS timestamp), CAST(:lastBucket AS timestamp), " +
+                               "                     CAST(:step AS interval)) AS s(bucket) " +
+                               "LEFT JOIN totals ON totals.bucket = CAST(s.bucket AS date) " +
+                               "ORDER BY s.bucket";
+
+    // Histórico completo lido apenas do acumulado mensal
+    @Query(value = "SELECT COALESCE(SUM(r.total) FILTER (WHERE r.type = 'RECEITA'), 0) AS \"totalIncome\", " +
+                   "COALESCE(SUM(r.total) FILTER (WHERE r.type = 'DESPESA'), 0) AS \"totalExpense\", " +
+                   "COALESCE(SUM(CASE WHEN r.type = 'RECEITA' THEN r.total ELSE -r.total END), 0) AS \"balance\", " +
+                   "CAST(COALESCE(SUM(r.count) FILTER (WHERE r.type = 'RECEITA'), 0) AS bigint) AS \"incomeCount\", " +
+                   "CAST(COALESCE(SUM(r.count) FILTER (WHERE r.type = 'DESPESA'), 0) AS bigint) AS \"expenseCount\", " +
+                   "CAST(COALESCE(SUM(r.count), 0) AS bigint) AS \"totalTransactions\" " +
+                   "FROM tb_monthly_rollup r WHERE r.user_id = :userId",
+           nativeQuery = true)
+    FinancialTotals getFinancialTotals(@Param("userId") Long userId);
+
+    // Meses completos vêm do acumulado mensal; as bordas parciais do período vêm das transações
+    @Query(value = "SELECT COALESCE(SUM(t.value) FILTER (WHERE t.kind = 'RECEITA'), 0) AS \"totalIncome\", " +
+                   "COALESCE(SUM(t.value) FILTER (WHERE t.kind = 'DESPESA'), 0) AS \"totalExpense\", " +
+                   "COALESCE(SUM(CASE WHEN t.kind = 'RECEITA' THEN t.value ELSE -t.value END), 0) AS \"balance\", " +
+                   "CAST(COALESCE(SUM(t.cnt) FILTER (WHERE t.kind = 'RECEITA'), 0) AS bigint) AS \"incomeCount\", " +
+                   "CAST(COALESCE(SUM(t.cnt) FILTER (WHERE t.kind = 'DESPESA'), 0) AS bigint) AS \"expenseCount\", " +
+                   "CAST(COALESCE(SUM(t.cnt), 0) AS bigint) AS \"totalTransactions\" " +
+                   "FROM (SELECT r.type AS kind, r.total AS value, r.count AS cnt FROM tb_monthly_rollup r " +
+                   "      WHERE r.user_id = :userId AND r.year_month >= :monthsFrom AND r.year_month < :monthsTo " +
+                   "      UNION ALL " +
+                   "      SELECT 'RECEITA' AS kind, i.value, 1 AS cnt FROM tb_income i " +
+                   "      WHERE i.user_id = :userId AND i.ativo = true " +
+                   "      AND ((i.date >= :startDate AND i.date < :monthsFrom) " +
+                   "        OR (i.date >= :monthsTo AND i.date <= :endDate)) " +
+                   "      UNION ALL " +
+                   "      SELECT 'DESPESA' AS kind, e.value, 1 AS cnt FROM tb_expense e " +
+                   "      WHERE e.user_id = :userId AND e.ativo = true " +
+                   "      AND ((e.date >= :startDate AND e.date < :monthsFrom) " +
+                   "        OR (e.date >= :monthsTo AND e.date <= :endDate))) t",
+           nativeQuery = true)
+    FinancialTotals getFinancialTotalsByPeriod(@Param("userId") Long userId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("monthsFrom") LocalDate monthsFrom,
+                                               @Param("monthsTo") LocalDate monthsTo);
+
+    // Dias e semanas: um único GROUP BY sobre as transações do período
+    @Query(value = "WITH t AS (" +
+                   "    SELECT CAST(date_trunc(:unit, CAST(i.date AS timestamp)) AS date) AS bucket, " +
+                   "           i.value AS income, CAST(0 AS numeric) AS expense FROM tb_income i " +
+                   "    WHERE i.user_id = :userId AND i.ativo = true AND i.date >= :startDate AND i.date <= :endDate " +
+                   "    UNION ALL " +
+                   "    SELECT CAST(date_trunc(:unit, CAST(e.date AS timestamp)) AS date), " +
+                   "           CAST(0 AS numeric), e.value FROM tb_expense e " +
+                   "    WHERE e.user_id = :userId AND e.ativo = true AND e.date >= :startDate AND e.date <= :endDate), " +
+                   TIMESERIES_SELECT,
+           nativeQuery = true)
+    List<TimeseriesPoint> getTimeseries(@Param("userId") Long userId,
+                                        @Param("unit") String unit,
+                                        @Param("step") String step,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("firstBucket") LocalDate firstBucket,
+                                        @Param("lastBucket") LocalDate lastBucket);
+
+    // Meses: completos vêm do acumulado mensal; apenas as bordas parciais varrem as transações
+    @Query(value = "WITH t AS (" +
+                   "    SELECT r.year_month AS bucket, " +
+                   "           CASE WHEN r.type = 'RECEITA' THEN r.total ELSE 0 END AS income, " +
+                   "           CASE WHEN r.type = 'DESPESA' THEN r.total ELSE 0 END AS expense " +
+                   "    FROM tb_monthly_rollup r " +
+                   "    WHERE r.user_id = :userId AND r.year_month >= :monthsFrom AND r.year_month < :monthsTo " +
+                   "    UNION ALL " +
+                   "    SELECT CAST(date_trunc('month', CAST(i.date AS timestamp)) AS date), i.value, CAST(0 AS numeric) " +
+                   "    FROM tb_income i WHERE i.user_id = :userId AND i.ativo = true " +
+                   "    AND ((i.date >= :startDate AND i.date < :monthsFrom) OR (i.date >= :monthsTo AND i.date <= :endDate)) " +
+                   "    UNION ALL " +
+                   "    SELECT CAST(date_trunc('month', CAST(e.date AS timestamp)) AS date), CAST(0 AS numeric), e.value " +
+                   "    FROM tb_expense e WHERE e.user_id = :userId AND e.ativo = true " +
+                   "    AND ((e.date >= :startDate AND e.date < :monthsFrom) OR (e.date >= :monthsTo AND e.date <= :endDate))), " +
+                   TIMESERIES_SELECT,
+           nativeQuery = true)
+    List<TimeseriesPoint> getMonthlyTimeseries(@Param("userId") Long userId,
+                                               @Param("step") String step,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("monthsFrom") LocalDate monthsFrom,
+                                               @Param("monthsTo") LocalDate monthsTo,
+                                               @Param("firstBucket") LocalDate firstBucket,
+                                               @Param("lastBucket") LocalDate lastBucket);
+
+    // Um mês por categoria com movimento no período (meses sem movimento preenchidos com zero).
+    // total e count de cada mês cobrem só o período; a variação compara meses de calendário inteiros
+    // (full_total, do acumulado mensal) e fica nula nos meses das bordas cobertos em parte, onde
+    // comparar parte de um mês com o anterior inteiro distorceria o resultado.
+    // O mês anterior ao período entra só como base do LAG e é descartado antes dos totais e percentuais.
+    @Query(value = "WITH t AS (" +
+                   "    SELECT r.category_id, r.type, r.year_month AS month, " +
+                   "           CASE WHEN r.year_month >= :monthsFrom AND r.year_month < :monthsTo THEN r.total ELSE 0 END AS total, " +
+                   "           CASE WHEN r.year_month >= :monthsFrom AND r.year_month < :monthsTo THEN r.count ELSE 0 END AS cnt, " +
+                   "           r.total AS full_total " +
+                   "    FROM tb_monthly_rollup r WHERE r.user_id = :userId " +
+                   "    AND r.year_month >= :previousMonth AND r.year_month <= :lastMonth " +
+                   "    UNION ALL " +
+                   "    SELECT i.category_id, 'RECEITA', CAST(date_trunc('month', CAST(i.date AS timestamp)) AS date), i.value, 1, 0 " +
+                   "    FROM tb_income i WHERE i.user_id = :userId AND i.ativo = true " +
+                   "    AND ((i.date >= :startDate AND i.date < :monthsFrom) OR (i.date >= :monthsTo AND i.date <= :endDate)) " +
+                   "    UNION ALL " +
+                   "    SELECT e.category_id, 'DESPESA', CAST(date_trunc('month', CAST(e.date AS timestamp)) AS date), e.value, 1, 0 " +
+                   "    FROM tb_expense e WHERE e.user_id = :userId AND e.ativo = true " +
+                   "    AND ((e.date >= :startDate AND e.date < :monthsFrom) OR (e.date >= :monthsTo AND e.date <= :endDate))), " +
+                   "monthly AS (SELECT t.category_id, t.type, t.month, SUM(t.total) AS total, SUM(t.cnt) AS cnt, " +
+                   "                   SUM(t.full_total) AS full_total " +
+                   "            FROM t GROUP BY t.category_id, t.type, t.month), " +
+                   "grid AS (SELECT c.category_id, c.type, CAST(m.month AS date) AS month " +
+                   "         FROM (SELECT DISTINCT category_id, type FROM monthly WHERE month >= :firstMonth AND cnt > 0) c " +
+                   "         CROSS JOIN generate_series(CAST(:previousMonth AS timestamp), CAST(:lastMonth AS timestamp), " +
+                   "                                    CAST('1 month' AS interval)) AS m(month)), " +
+                   "series AS (SELECT g.category_id, g.type, g.month, " +
+                   "                  COALESCE(monthly.total, 0) AS total, COALESCE(monthly.cnt, 0) AS cnt, " +
+                   "                  LAG(COALESCE(monthly.full_total, 0)) OVER (PARTITION BY g.category_id, g.type ORDER BY g.month) AS previous_total, " +
+                   "                  g.month >= :monthsFrom AND g.month < :monthsTo AS whole_month " +
+                   "           FROM grid g LEFT JOIN monthly ON monthly.category_id = g.category_id " +
+                   "           AND monthly.type = g.type AND monthly.month = g.month), " +
+                   "period AS (SELECT s.*, " +
+                   "                  SUM(s.total) OVER (PARTITION BY s.category_id, s.type) AS category_total, " +
+                   "                  SUM(s.cnt) OVER (PARTITION BY s.category_id, s.type) AS category_count, " +
+                   "                  SUM(s.total) OVER (PARTITION BY s.type) AS type_total " +
+                   "           FROM series s WHERE s.month >= :firstMonth) " +
+                   "SELECT p.category_id AS \"categoryId\", c.name AS \"categoryName\", p.type AS \"type\", " +
+                   "p.month AS \"month\", p.total AS \"total\", CAST(p.cnt AS bigint) AS \"count\", " +
+                   "p.previous_total AS \"previousTotal\", " +
+                   "CASE WHEN p.whole_month THEN p.total - p.previous_total END AS \"change\", " +
+                   "CASE WHEN p.whole_month THEN ROUND((p.total - p.previous_total) * 100 / NULLIF(p.previous_total, 0), 2) END AS \"changePercent\", " +
+                   "p.category_total AS \"categoryTotal\", CAST(p.category_count AS bigint) AS \"categoryCount\", " +
+                   "ROUND(p.category_total * 100 / NULLIF(p.type_total, 0), 2) AS \"share\" " +
+                   "FROM period p JOIN tb_category c ON c.id = p.category_id " +
+                   "ORDER BY p.type, p.category_total DESC, c.name, p.category_id, p.month",
+           nativeQuery = true)
+    List<CategoryMonth> getCategoryBreakdown(@Param("userId") Long userId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate,
+                                             @Param("monthsFrom") LocalDate monthsFrom,
+                                             @Param("monthsTo") LocalDate monthsTo,
+                                             @Param("previousMonth") LocalDate previousMonth,
+                                             @Param("firstMonth") LocalDate firstMonth,
+                                             @Param("lastMonth") LocalDate lastMonth);
+}
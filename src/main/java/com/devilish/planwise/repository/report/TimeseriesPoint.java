@@ -0,0 +1,18 @@
+package com.devilish.planwise.repository.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Um intervalo da série temporal: totais do intervalo e saldo acumulado desde o início do período
+public interface TimeseriesPoint {
+
+    LocalDate getBucket();
+
+    BigDecimal getIncome();
+
+    BigDecimal getExpense();
+
+    BigDecimal getBalance();
+
+    BigDecimal getCumulativeBalance();
+}
@@ -0,0 +1,19 @@
+package com.devilish.planwise.repository.user;
+
+import com.devilish.planwise.entities.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserDataVersionRepository extends org.springframework.data.repository.Repository<User, Long> {
+
+    String CHANNEL = "planwise_data_versions";
+
+    // NOTIFY participa da transação da gravação: só é entregue no commit e some no rollback.
+    // Sem transação (fallback do evento), abre a sua; nunca readOnly, que iria para a réplica
+    @Transactional
+    @Query(value = "SELECT 1 FROM pg_notify('" + CHANNEL + "', CAST(:userId AS text))", nativeQuery = true)
+    int notifyChanged(@Param("userId") Long userId);
+}
@@ -2,7 +2,11 @@ package com.devilish.planwise.repository.user;
 
 import com.devilish.planwise.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,4 +16,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.active AS active, u.role AS role FROM User u WHERE u.id = :id")
+    Optional<UserStatus> findStatusById(@Param("id") Long id);
+
+    // Transação própria: chamado depois do BCrypt, fora de qualquer transação de serviço
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,10 @@
+package com.devilish.planwise.repository.user;
+
+import com.devilish.planwise.entities.User;
+
+public interface UserStatus {
+
+    Boolean getActive();
+
+    User.Role getRole();
+}
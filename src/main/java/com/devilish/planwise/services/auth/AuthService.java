@@ -6,12 +6,14 @@ import com.devilish.planwise.dto.auth.RegisterRequest;
 import com.devilish.planwise.entities.User;
 import com.devilish.planwise.repository.user.UserRepository;
 import com.devilish.planwise.config.JwtService;
+import com.devilish.planwise.exceptions.ServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -24,7 +26,8 @@ public class AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
 
-    @Transactional
+    // Sem transação envolvendo o método: o hash da senha espera no pool do BCrypt
+    // sem manter uma conexão do banco presa; o save abre a sua própria
     public AuthResponse register(RegisterRequest request) {
         // Verificar se o email já existe
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -43,7 +46,7 @@ public class AuthService {
         User savedUser = userRepository.save(user);
 
         // Gerar token JWT
-        String token = jwtService.generateToken(user);
+        String token = jwtService.generateToken(savedUser);
 
         return new AuthResponse(
                 token,
@@ -54,19 +57,25 @@ public class AuthService {
         );
     }
 
-    @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
-        // Autenticar usuário
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // Autenticar usuário; o principal já é a entidade carregada pelo CustomUserDetailsService,
+        // com o hash atualizado caso o custo do BCrypt tenha mudado
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof ServiceUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw e;
+        }
 
-        // Buscar usuário
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        User user = (User) authentication.getPrincipal();
 
         // Gerar token JWT
         String token = jwtService.generateToken(user);
@@ -0,0 +1,91 @@
+package com.devilish.planwise.services.category;
+
+import com.devilish.planwise.config.CacheLoads;
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.category.CategoryRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Categorias ativas de cada usuário em memória: validação das gravações de receitas/despesas
+// e listagens completas sem ida ao banco. Recarregada após cada alteração confirmada.
+@Component
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final AsyncCache<Long, UserCategories> cache;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${planwise.categories.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${planwise.categories.cache.ttl:10m}") Duration ttl) {
+        this.categoryRepository = categoryRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "categories");
+    }
+
+    // Já ordenadas por nome, como na consulta original
+    public List<CategoryResponse> getAll(Long userId) {
+        return load(userId).all();
+    }
+
+    public List<CategoryResponse> getByType(Long userId, Category.CategoryType type) {
+        return getAll(userId).stream()
+                .filter(category -> category.getType() == type)
+                .toList();
+    }
+
+    // Categoria ativa do usuário com o tipo exigido pela gravação; mesmas mensagens da validação no banco.
+    // Validação só em memória: uma exclusão em outro nó chega aqui pelo TTL, e uma id inexistente
+    // não recarrega o usuário (a FK continua barrando categorias que não existem)
+    public CategoryResponse require(Long userId, Long categoryId, Category.CategoryType type) {
+        CategoryResponse category = load(userId).byId().get(categoryId);
+        if (category == null) {
+            throw new RuntimeException("Categoria não encontrada");
+        }
+        if (category.getType() != type) {
+            throw new RuntimeException("A categoria deve ser do tipo " + type.name());
+        }
+        return category;
+    }
+
+    public void invalidateUser(Long userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        if (event.source() == UserDataChangedEvent.Source.CATEGORY) {
+            invalidateUser(event.userId());
+        }
+    }
+
+    private UserCategories load(Long userId) {
+        return CacheLoads.get(cache, userId,
+                id -> new UserCategories(categoryRepository.findByUserIdAndActiveTrueOrderByNameAsc(id)));
+    }
+
+    private record UserCategories(List<CategoryResponse> all, Map<Long, CategoryResponse> byId) {
+
+        UserCategories(List<CategoryResponse> all) {
+            this(List.copyOf(all), all.stream().collect(Collectors.toUnmodifiableMap(CategoryResponse::getId, Function.identity())));
+        }
+    }
+}
@@ -3,10 +3,13 @@ package com.devilish.planwise.services.category;
 import com.devilish.planwise.dto.category.CategoryRequest;
 import com.devilish.planwise.dto.category.CategoryResponse;
 import com.devilish.planwise.entities.Category;
-import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
 import com.devilish.planwise.repository.category.CategoryRepository;
+import com.devilish.planwise.services.search.SearchQuery;
+import com.devilish.planwise.services.search.SearchSettings;
 import com.devilish.planwise.services.user.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -14,77 +17,72 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchSettings searchSettings;
 
     @Transactional
     public CategoryResponse createCategory(CategoryRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long userId = userService.getCurrentUserId();
         
         // Verificar se já existe categoria com o mesmo nome para o usuário
-        if (categoryRepository.existsByNameAndUserIdAndActiveTrue(request.getName(), currentUser.getId())) {
+        if (categoryRepository.existsByNameAndUserIdAndActiveTrue(request.getName(), userId)) {
             throw new RuntimeException("Já existe uma categoria com este nome");
         }
 
         Category category = new Category();
         category.setName(request.getName());
         category.setType(request.getType());
-        category.setUser(currentUser);
+        category.setUser(userService.getUserReference(userId));
         category.setCreatedAt(LocalDateTime.now());
         category.setActive(true);
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.CATEGORY));
         return CategoryResponse.fromCategory(savedCategory);
     }
 
     @Transactional(readOnly = true)
     public Page<CategoryResponse> getAllCategories(Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
-        Page<Category> categories = categoryRepository.findByUserIdAndActiveTrueOrderByNameAsc(currentUser.getId(), pageable);
-        return categories.map(CategoryResponse::fromCategory);
+        Long userId = userService.getCurrentUserId();
+        return categoryRepository.findByUserIdAndActiveTrueOrderByNameAsc(userId, pageable);
     }
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Category> categories = categoryRepository.findByUserIdAndActiveTrueOrderByNameAsc(currentUser.getId());
-        return categories.stream()
-                .map(CategoryResponse::fromCategory)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return categoryCache.getAll(userId);
     }
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> getCategoriesByType(Category.CategoryType type) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Category> categories = categoryRepository.findByUserIdAndTypeAndActiveTrueOrderByNameAsc(currentUser.getId(), type);
-        return categories.stream()
-                .map(CategoryResponse::fromCategory)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return categoryCache.getByType(userId, type);
     }
 
     @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        return categoryRepository.findResponseById(id, userId)
                 .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
-        return CategoryResponse.fromCategory(category);
     }
 
     @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
 
         // Verificar se já existe outra categoria com o mesmo nome
         if (!category.getName().equals(request.getName()) && 
-            categoryRepository.existsByNameAndUserIdAndActiveTrue(request.getName(), currentUser.getId())) {
+            categoryRepository.existsByNameAndUserIdAndActiveTrue(request.getName(), userId)) {
             throw new RuntimeException("Já existe uma categoria com este nome");
         }
 
@@ -92,26 +90,30 @@ public class CategoryService {
         category.setType(request.getType());
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.CATEGORY));
         return CategoryResponse.fromCategory(savedCategory);
     }
 
     @Transactional
     public void deleteCategory(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
 
         // Soft delete
         category.setActive(false);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.CATEGORY));
     }
 
     @Transactional(readOnly = true)
-    public List<CategoryResponse> searchCategories(String search) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Category> categories = categoryRepository.findByUserAndNameContainingIgnoreCaseAndActiveTrue(currentUser.getId(), search);
-        return categories.stream()
-                .map(CategoryResponse::fromCategory)
-                .collect(Collectors.toList());
+    public List<CategoryResponse> searchCategories(String search, int page, int size) {
+        SearchQuery query = searchSettings.query(search, page, size);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Long userId = userService.getCurrentUserId();
+        return categoryRepository.searchByName(userId, query.term(), query.pattern(), query.limit(), query.offset());
     }
 }
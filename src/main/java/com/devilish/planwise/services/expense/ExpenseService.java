@@ -1,160 +1,257 @@
 package com.devilish.planwise.services.expense;
 
+import com.devilish.planwise.config.ReportingWorkload;
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.ImportResult;
+import com.devilish.planwise.dto.common.PageCursor;
 import com.devilish.planwise.dto.expense.ExpenseRequest;
 import com.devilish.planwise.dto.expense.ExpenseResponse;
 import com.devilish.planwise.entities.Category;
 import com.devilish.planwise.entities.Expense;
 import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
 import com.devilish.planwise.repository.category.CategoryRepository;
 import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.services.category.CategoryCache;
+import com.devilish.planwise.services.export.ExportFormat;
+import com.devilish.planwise.services.export.ExportWriter;
+import com.devilish.planwise.services.importing.CsvImportReader;
+import com.devilish.planwise.services.importing.ImportRow;
+import com.devilish.planwise.services.importing.TransactionImportService;
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import com.devilish.planwise.services.search.SearchQuery;
+import com.devilish.planwise.services.search.SearchSettings;
 import com.devilish.planwise.services.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
 
+    private static final List<String> EXPORT_COLUMNS =
+            List.of("id", "description", "value", "date", "category", "createdAt");
+
     private final ExpenseRepository expenseRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionImportService transactionImportService;
+    private final SearchSettings searchSettings;
 
     @Transactional
     public ExpenseResponse createExpense(ExpenseRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long userId = userService.getCurrentUserId();
         
-        // Verificar se a categoria existe e pertence ao usuário
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(request.getCategoryId(), currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
-
-        // Verificar se a categoria é do tipo DESPESA
-        if (category.getType() != Category.CategoryType.DESPESA) {
-            throw new RuntimeException("A categoria deve ser do tipo DESPESA");
-        }
+        // Verificar se a categoria existe, pertence ao usuário e é do tipo DESPESA (em memória)
+        CategoryResponse category = categoryCache.require(userId, request.getCategoryId(), Category.CategoryType.DESPESA);
 
         Expense expense = new Expense();
         expense.setDescription(request.getDescription());
         expense.setValue(request.getValue());
         expense.setDate(request.getDate());
-        expense.setUser(currentUser);
-        expense.setCategory(category);
+        expense.setUser(userService.getUserReference(userId));
+        expense.setCategory(categoryRepository.getReferenceById(category.getId()));
         expense.setCreatedAt(LocalDateTime.now());
         expense.setActive(true);
 
         Expense savedExpense = expenseRepository.save(expense);
-        return ExpenseResponse.fromExpense(savedExpense);
+        monthlyRollupService.add(userId, category.getId(), Category.CategoryType.DESPESA,
+                savedExpense.getDate(), savedExpense.getValue());
+        balanceLedgerService.add(userId, Category.CategoryType.DESPESA, savedExpense.getDate(), savedExpense.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.EXPENSE));
+        return ExpenseResponse.fromExpense(savedExpense, category);
+    }
+
+    // Sem @Transactional: cada bloco de linhas é gravado na sua própria transação
+    public ImportResult importExpenses(List<ExpenseRequest> requests) {
+        Long userId = userService.getCurrentUserId();
+        Iterator<ImportRow> rows = IntStream.range(0, requests.size())
+                .mapToObj(index -> {
+                    ExpenseRequest request = requests.get(index);
+                    return ImportRow.of(index + 1, request.getDescription(), request.getValue(),
+                            request.getDate(), request.getCategoryId());
+                })
+                .iterator();
+        return transactionImportService.importRows(userId, Category.CategoryType.DESPESA, rows, ExpenseService::newExpense);
+    }
+
+    public ImportResult importExpenses(InputStream csv) throws IOException {
+        Long userId = userService.getCurrentUserId();
+        return transactionImportService.importRows(userId, Category.CategoryType.DESPESA,
+                new CsvImportReader(csv), ExpenseService::newExpense);
+    }
+
+    private static Expense newExpense(User user, Category category, ImportRow row) {
+        Expense expense = new Expense();
+        expense.setDescription(row.description());
+        expense.setValue(row.value());
+        expense.setDate(row.date());
+        expense.setUser(user);
+        expense.setCategory(category);
+        expense.setCreatedAt(LocalDateTime.now());
+        expense.setActive(true);
+        return expense;
     }
 
     @Transactional(readOnly = true)
     public Page<ExpenseResponse> getAllExpenses(Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
-        Page<Expense> expenses = expenseRepository.findByUserIdAndActiveTrueOrderByDateDesc(currentUser.getId(), pageable);
-        return expenses.map(ExpenseResponse::fromExpense);
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.findByUserIdAndActiveTrueOrderByDateDesc(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseResponse> getAllExpensesByCursor(String cursor, int size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = CursorPage.limitSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ExpenseResponse> expenses;
+        if (cursor == null || cursor.isBlank()) {
+            expenses = expenseRepository.findFirstKeysetPage(userId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            expenses = expenseRepository.findKeysetPageAfter(userId, position.dateKey(), position.id(), limit);
+        }
+
+        return CursorPage.of(expenses, pageSize,
+                e -> new PageCursor(e.getDate().toString(), e.getId()),
+                Function.identity());
     }
 
+    // Grava os registros do usuário à medida que são lidos; a consulta já projeta o DTO,
+    // então nenhuma entidade entra no contexto de persistência
     @Transactional(readOnly = true)
-    public List<ExpenseResponse> getAllExpenses() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Expense> expenses = expenseRepository.findByUserIdAndActiveTrueOrderByDateDesc(currentUser.getId());
-        return expenses.stream()
-                .map(ExpenseResponse::fromExpense)
-                .collect(Collectors.toList());
+    @ReportingWorkload
+    public void exportExpenses(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter writer = new ExportWriter(format, objectMapper, out);
+        writer.start(EXPORT_COLUMNS);
+
+        try (Stream<ExpenseResponse> expenses = expenseRepository.streamByUserId(userId)) {
+            Iterator<ExpenseResponse> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                ExpenseResponse expense = iterator.next();
+                writer.write(expense, List.of(
+                        expense.getId(),
+                        expense.getDescription(),
+                        expense.getValue(),
+                        expense.getDate(),
+                        expense.getCategory().getName(),
+                        expense.getCreatedAt() != null ? expense.getCreatedAt() : ""));
+            }
+        }
+
+        writer.finish();
     }
 
     @Transactional(readOnly = true)
     public List<ExpenseResponse> getExpensesByCategory(Long categoryId) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Expense> expenses = expenseRepository.findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(currentUser.getId(), categoryId);
-        return expenses.stream()
-                .map(ExpenseResponse::fromExpense)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(userId, categoryId);
     }
 
     @Transactional(readOnly = true)
     public List<ExpenseResponse> getExpensesByDateRange(LocalDate startDate, LocalDate endDate) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Expense> expenses = expenseRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(currentUser.getId(), startDate, endDate);
-        return expenses.stream()
-                .map(ExpenseResponse::fromExpense)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(userId, startDate, endDate);
     }
 
     @Transactional(readOnly = true)
     public ExpenseResponse getExpenseById(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Optional<Expense> expenseOptional = expenseRepository.findByIdAndUserIdAndActiveTrueWithCategory(id, currentUser.getId());
-        if (expenseOptional.isEmpty()) {
-            throw new RuntimeException("Despesa não encontrada");
-        }
-        
-        Expense expense = expenseOptional.get();
-        return ExpenseResponse.fromExpense(expense);
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.findResponseById(id, userId)
+                .orElseThrow(() -> new RuntimeException("Despesa não encontrada"));
     }
 
     @Transactional
     public ExpenseResponse updateExpense(Long id, ExpenseRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
-        Expense expense = expenseRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Expense expense = expenseRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Despesa não encontrada"));
 
-        // Verificar se a categoria existe e pertence ao usuário
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(request.getCategoryId(), currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
+        // Verificar se a categoria existe, pertence ao usuário e é do tipo DESPESA (em memória)
+        CategoryResponse category = categoryCache.require(userId, request.getCategoryId(), Category.CategoryType.DESPESA);
 
-        // Verificar se a categoria é do tipo DESPESA
-        if (category.getType() != Category.CategoryType.DESPESA) {
-            throw new RuntimeException("A categoria deve ser do tipo DESPESA");
-        }
+        // Valores anteriores para ajustar o acumulado mensal e o saldo diário
+        Long oldCategoryId = expense.getCategory().getId();
+        LocalDate oldDate = expense.getDate();
+        BigDecimal oldValue = expense.getValue();
 
         expense.setDescription(request.getDescription());
         expense.setValue(request.getValue());
         expense.setDate(request.getDate());
-        expense.setCategory(category);
+        expense.setCategory(categoryRepository.getReferenceById(category.getId()));
 
         Expense savedExpense = expenseRepository.save(expense);
-        return ExpenseResponse.fromExpense(savedExpense);
+        monthlyRollupService.move(userId, Category.CategoryType.DESPESA,
+                oldCategoryId, oldDate, oldValue,
+                category.getId(), savedExpense.getDate(), savedExpense.getValue());
+        balanceLedgerService.move(userId, Category.CategoryType.DESPESA,
+                oldDate, oldValue, savedExpense.getDate(), savedExpense.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.EXPENSE));
+        return ExpenseResponse.fromExpense(savedExpense, category);
     }
 
     @Transactional
     public void deleteExpense(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Expense expense = expenseRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Expense expense = expenseRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Despesa não encontrada"));
 
         // Soft delete
         expense.setActive(false);
         expenseRepository.save(expense);
+        monthlyRollupService.remove(userId, expense.getCategory().getId(), Category.CategoryType.DESPESA,
+                expense.getDate(), expense.getValue());
+        balanceLedgerService.remove(userId, Category.CategoryType.DESPESA, expense.getDate(), expense.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.EXPENSE));
     }
 
     @Transactional(readOnly = true)
-    public List<ExpenseResponse> searchExpenses(String search) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Expense> expenses = expenseRepository.findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(currentUser.getId(), search);
-        return expenses.stream()
-                .map(ExpenseResponse::fromExpense)
-                .collect(Collectors.toList());
+    public List<ExpenseResponse> searchExpenses(String search, int page, int size) {
+        SearchQuery query = searchSettings.query(search, page, size);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.searchByDescription(userId, query.term(), query.pattern(), query.limit(), query.offset());
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalExpense() {
-        User currentUser = userService.getCurrentUserEntity();
-        return expenseRepository.getTotalExpenseByUser(currentUser.getId());
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.getTotalExpenseByUser(userId);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalExpenseByDateRange(LocalDate startDate, LocalDate endDate) {
-        User currentUser = userService.getCurrentUserEntity();
-        return expenseRepository.getTotalExpenseByUserAndDateRange(currentUser.getId(), startDate, endDate);
+        Long userId = userService.getCurrentUserId();
+        return expenseRepository.getTotalExpenseByUserAndDateRange(userId, startDate, endDate);
     }
 
 }
@@ -0,0 +1,93 @@
+package com.devilish.planwise.services.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Grava uma linha por registro direto na resposta, sem acumular a coleção em memória
+public class ExportWriter {
+
+    private final ExportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Writer writer;
+    private boolean first = true;
+
+    public ExportWriter(ExportFormat format, ObjectMapper objectMapper, OutputStream out) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public void start(List<String> columns) throws IOException {
+        switch (format) {
+            case JSON -> writer.write('[');
+            case CSV -> writeCsvLine(columns);
+            case NDJSON -> { }
+        }
+    }
+
+    public void write(Object value, List<?> columns) throws IOException {
+        switch (format) {
+            case JSON -> {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(objectMapper.writeValueAsString(value));
+            }
+            case NDJSON -> {
+                writer.write(objectMapper.writeValueAsString(value));
+                writer.write('\n');
+            }
+            case CSV -> writeCsvLine(columns);
+        }
+        first = false;
+    }
+
+    public void finish() throws IOException {
+        if (format == ExportFormat.JSON) {
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(List<?> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(columns.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        // Textos que uma planilha interpretaria como fórmula recebem um apóstrofo (injeção de CSV);
+        // números negativos continuam numéricos
+        if (value instanceof CharSequence && isFormulaTrigger(text)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static boolean isFormulaTrigger(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char c = text.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
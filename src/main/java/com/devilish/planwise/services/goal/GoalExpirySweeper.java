@@ -0,0 +1,116 @@
+package com.devilish.planwise.services.goal;
+
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.goal.GoalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+// Marca como VENCIDA as metas em andamento com prazo encerrado, de todos os usuários.
+// Um advisory lock do PostgreSQL garante que apenas um nó do cluster execute a varredura.
+@Component
+@ConditionalOnProperty(name = "planwise.goals.expiry.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class GoalExpirySweeper {
+
+    // Chave fixa do advisory lock compartilhada por todas as instâncias
+    static final long LOCK_KEY = "planwise:goal-expiry".hashCode();
+
+    private final GoalRepository goalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter expiredGoals;
+    private final Counter skippedRuns;
+    private final Timer runDuration;
+
+    public GoalExpirySweeper(GoalRepository goalRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${planwise.goals.expiry.chunk-size:500}") int chunkSize) {
+        this.goalRepository = goalRepository;
+        this.eventPublisher = eventPublisher;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.expiredGoals = Counter.builder("planwise.goals.expiry.rows")
+                .description("Metas marcadas como vencidas pela varredura agendada")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("planwise.goals.expiry.skipped")
+                .description("Execuções ignoradas porque outro nó detinha o lock")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("planwise.goals.expiry.duration")
+                .description("Duração das varreduras de metas vencidas")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${planwise.goals.expiry.cron:0 5 0 * * *}")
+    public void sweep() {
+        // Lock de sessão em uma conexão dedicada, mantida aberta durante toda a varredura;
+        // cada bloco é gravado na sua própria transação, em outra conexão do pool
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!advisoryLock(lockConnection, "SELECT pg_try_advisory_lock(?)")) {
+                skippedRuns.increment();
+                log.debug("Varredura de metas vencidas em execução em outro nó");
+                return;
+            }
+
+            try {
+                int expired = runDuration.record(() -> expireAll(LocalDate.now()));
+                log.info("Varredura de metas vencidas concluída: {} metas expiradas", expired);
+            } finally {
+                // A conexão volta ao pool: o lock precisa ser liberado explicitamente
+                advisoryLock(lockConnection, "SELECT pg_advisory_unlock(?)");
+            }
+        } catch (SQLException e) {
+            log.warn("Falha ao obter o lock da varredura de metas vencidas: {}", e.getMessage());
+        }
+    }
+
+    int expireAll(LocalDate today) {
+        int total = 0;
+        int touched;
+        do {
+            List<Long> userIds = transactionTemplate.execute(status -> {
+                List<Long> owners = goalRepository.expireOverdueChunk(today, chunkSize);
+                for (Long userId : new HashSet<>(owners)) {
+                    eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
+                }
+                return owners;
+            });
+            touched = userIds == null ? 0 : userIds.size();
+            expiredGoals.increment(touched);
+            total += touched;
+        } while (touched == chunkSize);
+        return total;
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.devilish.planwise.services.goal;
 
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.PageCursor;
 import com.devilish.planwise.dto.goal.GoalRequest;
 import com.devilish.planwise.dto.goal.GoalResponse;
 import com.devilish.planwise.entities.Goal;
-import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.goal.GoalProgress;
 import com.devilish.planwise.repository.goal.GoalRepository;
+import com.devilish.planwise.services.search.SearchQuery;
+import com.devilish.planwise.services.search.SearchSettings;
 import com.devilish.planwise.services.user.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,7 +24,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -24,10 +32,12 @@ public class GoalService {
 
     private final GoalRepository goalRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchSettings searchSettings;
 
     @Transactional
     public GoalResponse createGoal(GoalRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long userId = userService.getCurrentUserId();
 
         Goal goal = new Goal();
         goal.setDescription(request.getDescription());
@@ -35,63 +45,76 @@ public class GoalService {
         goal.setCurrentValue(BigDecimal.ZERO);
         goal.setDeadline(request.getDeadline());
         goal.setStatus(Goal.GoalStatus.EM_ANDAMENTO);
-        goal.setUser(currentUser);
+        goal.setUser(userService.getUserReference(userId));
         goal.setCreatedAt(LocalDateTime.now());
         goal.setActive(true);
 
         Goal savedGoal = goalRepository.save(goal);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
         return GoalResponse.fromGoal(savedGoal);
     }
 
     @Transactional(readOnly = true)
     public Page<GoalResponse> getAllGoals(Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
-        Page<Goal> goals = goalRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(currentUser.getId(), pageable);
-        return goals.map(GoalResponse::fromGoal);
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<GoalResponse> getAllGoalsByCursor(String cursor, int size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = CursorPage.limitSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<GoalResponse> goals;
+        if (cursor == null || cursor.isBlank()) {
+            goals = goalRepository.findFirstKeysetPage(userId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            goals = goalRepository.findKeysetPageAfter(userId, position.dateTimeKey(), position.id(), limit);
+        }
+
+        return CursorPage.of(goals, pageSize,
+                g -> new PageCursor(g.getCreatedAt().toString(), g.getId()),
+                Function.identity());
     }
 
     @Transactional(readOnly = true)
     public List<GoalResponse> getAllGoals() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Goal> goals = goalRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(currentUser.getId());
-        return goals.stream()
-                .map(GoalResponse::fromGoal)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.findByUserIdAndActiveTrueOrderByCreatedAtDesc(userId);
     }
 
     @Transactional(readOnly = true)
     public List<GoalResponse> getGoalsByStatus(Goal.GoalStatus status) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Goal> goals = goalRepository.findByUserIdAndStatusAndActiveTrueOrderByCreatedAtDesc(currentUser.getId(), status);
-        return goals.stream()
-                .map(GoalResponse::fromGoal)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.findByUserIdAndStatusAndActiveTrueOrderByCreatedAtDesc(userId, status);
     }
 
     @Transactional(readOnly = true)
     public List<GoalResponse> getExpiredGoals() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Goal> goals = goalRepository.findByUserIdAndDeadlineBeforeAndStatusNotAndActiveTrueOrderByDeadlineAsc(
-                currentUser.getId(), LocalDate.now(), Goal.GoalStatus.ATINGIDA);
-        return goals.stream()
-                .map(GoalResponse::fromGoal)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.findExpiredResponses(userId, LocalDate.now(), Goal.GoalStatus.ATINGIDA);
     }
 
     @Transactional(readOnly = true)
     public GoalResponse getGoalById(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.findResponseById(id, userId)
                 .orElseThrow(() -> new RuntimeException("Meta não encontrada"));
-        return GoalResponse.fromGoal(goal);
     }
 
     @Transactional
     public GoalResponse updateGoal(Long id, GoalRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
-        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Meta não encontrada"));
 
+        // O cliente editou uma versão antiga: não sobrescreve as alterações feitas desde então
+        if (request.getVersion() != null && !request.getVersion().equals(goal.getVersion())) {
+            throw new OptimisticLockingFailureException("A meta foi alterada por outra requisição");
+        }
+
         goal.setDescription(request.getDescription());
         goal.setTargetValue(request.getTargetValue());
         goal.setDeadline(request.getDeadline());
@@ -99,72 +122,74 @@ public class GoalService {
         // Recalcular status se necessário
         updateGoalStatus(goal);
 
-        Goal savedGoal = goalRepository.save(goal);
+        // flush para conferir a versão agora e devolver a versão incrementada
+        Goal savedGoal = goalRepository.saveAndFlush(goal);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
         return GoalResponse.fromGoal(savedGoal);
     }
 
     @Transactional
     public GoalResponse updateGoalProgress(Long id, BigDecimal newCurrentValue) {
-        User currentUser = userService.getCurrentUserEntity();
-        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Meta não encontrada"));
 
         goal.setCurrentValue(newCurrentValue);
         updateGoalStatus(goal);
 
-        Goal savedGoal = goalRepository.save(goal);
+        Goal savedGoal = goalRepository.saveAndFlush(goal);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
         return GoalResponse.fromGoal(savedGoal);
     }
 
     @Transactional
     public GoalResponse addToGoalProgress(Long id, BigDecimal amount) {
-        User currentUser = userService.getCurrentUserEntity();
-        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        // Um único UPDATE ... RETURNING, sem leitura prévia: contribuições simultâneas não se perdem
+        GoalProgress goal = goalRepository.addProgress(id, userId, amount, LocalDate.now())
                 .orElseThrow(() -> new RuntimeException("Meta não encontrada"));
 
-        BigDecimal newCurrentValue = goal.getCurrentValue().add(amount);
-        goal.setCurrentValue(newCurrentValue);
-        updateGoalStatus(goal);
-
-        Goal savedGoal = goalRepository.save(goal);
-        return GoalResponse.fromGoal(savedGoal);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
+        return new GoalResponse(goal.getId(), goal.getDescription(), goal.getTargetValue(), goal.getCurrentValue(),
+                goal.getDeadline(), goal.getStatus(), goal.getCreatedAt(), goal.getActive(), goal.getVersion());
     }
 
     @Transactional
     public void deleteGoal(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Goal goal = goalRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Meta não encontrada"));
 
         // Soft delete
         goal.setActive(false);
         goalRepository.save(goal);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
     }
 
     @Transactional(readOnly = true)
-    public List<GoalResponse> searchGoals(String search) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Goal> goals = goalRepository.findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(currentUser.getId(), search);
-        return goals.stream()
-                .map(GoalResponse::fromGoal)
-                .collect(Collectors.toList());
+    public List<GoalResponse> searchGoals(String search, int page, int size) {
+        SearchQuery query = searchSettings.query(search, page, size);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.searchByDescription(userId, query.term(), query.pattern(), query.limit(), query.offset());
     }
 
     @Transactional(readOnly = true)
     public Long getGoalsCountByStatus(Goal.GoalStatus status) {
-        User currentUser = userService.getCurrentUserEntity();
-        return goalRepository.countByUserAndStatusAndActiveTrue(currentUser.getId(), status);
+        Long userId = userService.getCurrentUserId();
+        return goalRepository.countByUserAndStatusAndActiveTrue(userId, status);
     }
 
     @Transactional
     public void updateExpiredGoals() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Goal> expiredGoals = goalRepository.findByUserIdAndDeadlineBeforeAndStatusNotAndActiveTrueOrderByDeadlineAsc(
-                currentUser.getId(), LocalDate.now(), Goal.GoalStatus.ATINGIDA);
+        Long userId = userService.getCurrentUserId();
+        int expired = goalRepository.expireOverdueByUser(userId, LocalDate.now());
 
-        for (Goal goal : expiredGoals) {
-            goal.setStatus(Goal.GoalStatus.VENCIDA);
-            goalRepository.save(goal);
+        if (expired > 0) {
+            eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.GOAL));
         }
     }
 
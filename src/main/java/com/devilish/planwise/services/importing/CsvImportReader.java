@@ -0,0 +1,176 @@
+package com.devilish.planwise.services.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Lê o CSV sob demanda, uma linha por vez. Cabeçalho obrigatório com description, value, date
+// e categoryId ou category (nome); aceita o próprio arquivo gerado pela exportação.
+public class CsvImportReader implements Iterator<ImportRow> {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    // Linha física onde começa o próximo registro (campos entre aspas podem ocupar várias linhas)
+    private int line = 1;
+    private boolean unterminated;
+    private ImportRow next;
+
+    public CsvImportReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("Arquivo CSV vazio");
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("description", "value", "date")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Coluna obrigatória ausente no CSV: " + required);
+            }
+        }
+        if (!columns.containsKey("categoryid") && !columns.containsKey("category")) {
+            throw new IllegalArgumentException("Coluna obrigatória ausente no CSV: categoryId ou category");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public ImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private ImportRow readNext() {
+        try {
+            List<String> values;
+            int start;
+            do {
+                start = line;
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            // Aspas sem fechamento consomem o restante do arquivo: o erro fica na linha onde o registro começa
+            if (unterminated) {
+                return ImportRow.invalid(start, "Campo entre aspas não fechado");
+            }
+            return toRow(start, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ImportRow toRow(int line, List<String> values) {
+        String value = blankToNull(value(values, "value"));
+        String date = blankToNull(value(values, "date"));
+        String categoryId = blankToNull(value(values, "categoryid"));
+        try {
+            return new ImportRow(
+                    line,
+                    unescapeFormula(value(values, "description")),
+                    value != null ? new BigDecimal(value.trim()) : null,
+                    date != null ? LocalDate.parse(date.trim()) : null,
+                    categoryId != null ? Long.valueOf(categoryId.trim()) : null,
+                    unescapeFormula(blankToNull(value(values, "category"))),
+                    null
+            );
+        } catch (NumberFormatException e) {
+            return ImportRow.invalid(line, "Valor numérico inválido");
+        } catch (DateTimeParseException e) {
+            return ImportRow.invalid(line, "Data inválida, use o formato AAAA-MM-DD");
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    // Desfaz o apóstrofo que a exportação acrescenta a textos com cara de fórmula
+    private static String unescapeFormula(String value) {
+        if (value != null && value.length() > 1 && value.charAt(0) == '\'') {
+            char c = value.charAt(1);
+            if (c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r') {
+                return value.substring(1);
+            }
+        }
+        return value;
+    }
+
+    // Um registro por chamada, ou null no fim do arquivo. Campos entre aspas podem conter
+    // vírgulas, aspas duplicadas ("") e quebras de linha; fora delas, \r\n e \n encerram o registro.
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        current.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    current.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                current.append((char) c);
+            }
+            c = reader.read();
+        }
+        unterminated = quoted;
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,38 @@
+package com.devilish.planwise.services.importing;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Linha de importação (JSON ou CSV); parseError é preenchido quando a linha nem pôde ser convertida
+public record ImportRow(
+        int line,
+
+        @NotBlank(message = "Descrição é obrigatória")
+        @Size(min = 3, max = 100, message = "Descrição deve ter entre 3 e 100 caracteres")
+        String description,
+
+        @NotNull(message = "Valor é obrigatório")
+        @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
+        BigDecimal value,
+
+        @NotNull(message = "Data é obrigatória")
+        LocalDate date,
+
+        Long categoryId,
+        String categoryName,
+        String parseError
+) {
+
+    public static ImportRow of(int line, String description, BigDecimal value, LocalDate date, Long categoryId) {
+        return new ImportRow(line, description, value, date, categoryId, null, null);
+    }
+
+    public static ImportRow invalid(int line, String parseError) {
+        return new ImportRow(line, null, null, null, null, null, parseError);
+    }
+}
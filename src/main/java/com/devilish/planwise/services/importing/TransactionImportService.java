@@ -0,0 +1,181 @@
+package com.devilish.planwise.services.importing;
+
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.dto.common.ImportResult;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.services.category.CategoryCache;
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import com.devilish.planwise.services.report.RollupEntry;
+import com.devilish.planwise.services.user.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Importação em lote de receitas/despesas: categorias validadas uma vez por arquivo,
+// gravação em blocos (uma transação por bloco) aproveitando o batch JDBC do Hibernate
+@Service
+@Slf4j
+public class TransactionImportService {
+
+    private final CategoryCache categoryCache;
+    private final UserService userService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public TransactionImportService(CategoryCache categoryCache,
+                                    UserService userService,
+                                    MonthlyRollupService monthlyRollupService,
+                                    BalanceLedgerService balanceLedgerService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    EntityManager entityManager,
+                                    Validator validator,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${planwise.import.chunk-size:1000}") int chunkSize) {
+        this.categoryCache = categoryCache;
+        this.userService = userService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // Cria a entidade (Expense ou Income) a partir de uma linha já validada
+    @FunctionalInterface
+    public interface EntityFactory {
+        Object create(User user, Category category, ImportRow row);
+    }
+
+    public ImportResult importRows(Long userId, Category.CategoryType type, Iterator<ImportRow> rows, EntityFactory factory) {
+        CategoryLookup categories = new CategoryLookup(categoryCache.getByType(userId, type));
+        UserDataChangedEvent.Source source = type == Category.CategoryType.DESPESA
+                ? UserDataChangedEvent.Source.EXPENSE
+                : UserDataChangedEvent.Source.INCOME;
+
+        ImportResult result = new ImportResult();
+        List<ValidRow> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            ImportRow row = rows.next();
+            String error = validate(row, categories, type);
+            if (error != null) {
+                result.addError(row.line(), error);
+                continue;
+            }
+
+            chunk.add(new ValidRow(row, categories.resolve(row)));
+            if (chunk.size() == chunkSize) {
+                saveChunk(userId, type, source, chunk, factory, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(userId, type, source, chunk, factory, result);
+        }
+
+        result.getErrors().sort(Comparator.comparingInt(ImportResult.RowError::getLine));
+        return result;
+    }
+
+    private void saveChunk(Long userId, Category.CategoryType type, UserDataChangedEvent.Source source,
+                           List<ValidRow> chunk, EntityFactory factory, ImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = userService.getUserReference(userId);
+                Map<Long, Category> references = new HashMap<>();
+                List<RollupEntry> entries = new ArrayList<>(chunk.size());
+
+                for (ValidRow valid : chunk) {
+                    Category category = references.computeIfAbsent(valid.categoryId(),
+                            id -> entityManager.getReference(Category.class, id));
+                    entityManager.persist(factory.create(user, category, valid.row()));
+                    entries.add(new RollupEntry(valid.categoryId(), valid.row().date(), valid.row().value()));
+                }
+
+                // Envia os INSERTs em lote e libera as entidades do contexto de persistência
+                entityManager.flush();
+                entityManager.clear();
+
+                monthlyRollupService.addAll(userId, type, entries);
+                balanceLedgerService.addAll(userId, type, entries);
+                eventPublisher.publishEvent(new UserDataChangedEvent(userId, source));
+            });
+            result.addImported(chunk.size());
+        } catch (RuntimeException e) {
+            // O detalhe (SQL, constraints) fica só no log; a resposta recebe uma mensagem genérica
+            log.warn("Falha ao gravar bloco de importação do usuário {} (linhas {} a {})", userId,
+                    chunk.get(0).row().line(), chunk.get(chunk.size() - 1).row().line(), e);
+            for (ValidRow valid : chunk) {
+                result.addError(valid.row().line(), "Não foi possível gravar o bloco desta linha; tente importar novamente");
+            }
+        }
+    }
+
+    private String validate(ImportRow row, CategoryLookup categories, Category.CategoryType type) {
+        if (row.parseError() != null) {
+            return row.parseError();
+        }
+
+        Set<ConstraintViolation<ImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+
+        if (row.categoryId() == null && row.categoryName() == null) {
+            return "Categoria é obrigatória";
+        }
+        if (categories.resolve(row) == null) {
+            return "Categoria não encontrada ou não é do tipo " + type.name();
+        }
+        return null;
+    }
+
+    private record ValidRow(ImportRow row, Long categoryId) {
+    }
+
+    // Categorias ativas do usuário para o tipo importado, por id e por nome
+    private static class CategoryLookup {
+
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> byName = new HashMap<>();
+
+        CategoryLookup(List<CategoryResponse> categories) {
+            for (CategoryResponse category : categories) {
+                ids.add(category.getId());
+                byName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+            }
+        }
+
+        Long resolve(ImportRow row) {
+            if (row.categoryId() != null) {
+                return ids.contains(row.categoryId()) ? row.categoryId() : null;
+            }
+            return byName.get(row.categoryName().trim().toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -1,164 +1,256 @@
 package com.devilish.planwise.services.income;
 
+import com.devilish.planwise.config.ReportingWorkload;
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.ImportResult;
+import com.devilish.planwise.dto.common.PageCursor;
 import com.devilish.planwise.dto.income.IncomeRequest;
 import com.devilish.planwise.dto.income.IncomeResponse;
 import com.devilish.planwise.entities.Category;
 import com.devilish.planwise.entities.Income;
 import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
 import com.devilish.planwise.repository.category.CategoryRepository;
 import com.devilish.planwise.repository.income.IncomeRepository;
+import com.devilish.planwise.services.category.CategoryCache;
+import com.devilish.planwise.services.export.ExportFormat;
+import com.devilish.planwise.services.export.ExportWriter;
+import com.devilish.planwise.services.importing.CsvImportReader;
+import com.devilish.planwise.services.importing.ImportRow;
+import com.devilish.planwise.services.importing.TransactionImportService;
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import com.devilish.planwise.services.search.SearchQuery;
+import com.devilish.planwise.services.search.SearchSettings;
 import com.devilish.planwise.services.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class IncomeService {
 
+    private static final List<String> EXPORT_COLUMNS =
+            List.of("id", "description", "value", "date", "category", "createdAt");
+
     private final IncomeRepository incomeRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final UserService userService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionImportService transactionImportService;
+    private final SearchSettings searchSettings;
 
     @Transactional
     public IncomeResponse createIncome(IncomeRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
+        Long userId = userService.getCurrentUserId();
         
-        // Verificar se a categoria existe e pertence ao usuário
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(request.getCategoryId(), currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
-
-        // Verificar se a categoria é do tipo RECEITA
-        if (category.getType() != Category.CategoryType.RECEITA) {
-            throw new RuntimeException("A categoria deve ser do tipo RECEITA");
-        }
+        // Verificar se a categoria existe, pertence ao usuário e é do tipo RECEITA (em memória)
+        CategoryResponse category = categoryCache.require(userId, request.getCategoryId(), Category.CategoryType.RECEITA);
 
         Income income = new Income();
         income.setDescription(request.getDescription());
         income.setValue(request.getValue());
         income.setDate(request.getDate());
-        income.setUser(currentUser);
-        income.setCategory(category);
+        income.setUser(userService.getUserReference(userId));
+        income.setCategory(categoryRepository.getReferenceById(category.getId()));
         income.setCreatedAt(LocalDateTime.now());
         income.setActive(true);
 
         Income savedIncome = incomeRepository.save(income);
-        return IncomeResponse.fromIncome(savedIncome);
+        monthlyRollupService.add(userId, category.getId(), Category.CategoryType.RECEITA,
+                savedIncome.getDate(), savedIncome.getValue());
+        balanceLedgerService.add(userId, Category.CategoryType.RECEITA, savedIncome.getDate(), savedIncome.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.INCOME));
+        return IncomeResponse.fromIncome(savedIncome, category);
+    }
+
+    // Sem @Transactional: cada bloco de linhas é gravado na sua própria transação
+    public ImportResult importIncomes(List<IncomeRequest> requests) {
+        Long userId = userService.getCurrentUserId();
+        Iterator<ImportRow> rows = IntStream.range(0, requests.size())
+                .mapToObj(index -> {
+                    IncomeRequest request = requests.get(index);
+                    return ImportRow.of(index + 1, request.getDescription(), request.getValue(),
+                            request.getDate(), request.getCategoryId());
+                })
+                .iterator();
+        return transactionImportService.importRows(userId, Category.CategoryType.RECEITA, rows, IncomeService::newIncome);
+    }
+
+    public ImportResult importIncomes(InputStream csv) throws IOException {
+        Long userId = userService.getCurrentUserId();
+        return transactionImportService.importRows(userId, Category.CategoryType.RECEITA,
+                new CsvImportReader(csv), IncomeService::newIncome);
+    }
+
+    private static Income newIncome(User user, Category category, ImportRow row) {
+        Income income = new Income();
+        income.setDescription(row.description());
+        income.setValue(row.value());
+        income.setDate(row.date());
+        income.setUser(user);
+        income.setCategory(category);
+        income.setCreatedAt(LocalDateTime.now());
+        income.setActive(true);
+        return income;
     }
 
     @Transactional(readOnly = true)
     public Page<IncomeResponse> getAllIncomes(Pageable pageable) {
-        User currentUser = userService.getCurrentUserEntity();
-        Page<Income> incomes = incomeRepository.findByUserIdAndActiveTrueOrderByDateDesc(currentUser.getId(), pageable);
-        // Força o carregamento da categoria antes de converter para DTO
-        incomes.forEach(income -> income.getCategory().getName());
-        return incomes.map(IncomeResponse::fromIncome);
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.findByUserIdAndActiveTrueOrderByDateDesc(userId, pageable);
     }
 
     @Transactional(readOnly = true)
-    public List<IncomeResponse> getAllIncomes() {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Income> incomes = incomeRepository.findByUserIdAndActiveTrueOrderByDateDesc(currentUser.getId());
-        // Força o carregamento da categoria antes de converter para DTO
-        incomes.forEach(income -> income.getCategory().getName());
-        return incomes.stream()
-                .map(IncomeResponse::fromIncome)
-                .collect(Collectors.toList());
+    public CursorPage<IncomeResponse> getAllIncomesByCursor(String cursor, int size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = CursorPage.limitSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<IncomeResponse> incomes;
+        if (cursor == null || cursor.isBlank()) {
+            incomes = incomeRepository.findFirstKeysetPage(userId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            incomes = incomeRepository.findKeysetPageAfter(userId, position.dateKey(), position.id(), limit);
+        }
+
+        return CursorPage.of(incomes, pageSize,
+                i -> new PageCursor(i.getDate().toString(), i.getId()),
+                Function.identity());
+    }
+
+    // Grava os registros do usuário à medida que são lidos; a consulta já projeta o DTO,
+    // então nenhuma entidade entra no contexto de persistência
+    @Transactional(readOnly = true)
+    @ReportingWorkload
+    public void exportIncomes(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter writer = new ExportWriter(format, objectMapper, out);
+        writer.start(EXPORT_COLUMNS);
+
+        try (Stream<IncomeResponse> incomes = incomeRepository.streamByUserId(userId)) {
+            Iterator<IncomeResponse> iterator = incomes.iterator();
+            while (iterator.hasNext()) {
+                IncomeResponse income = iterator.next();
+                writer.write(income, List.of(
+                        income.getId(),
+                        income.getDescription(),
+                        income.getValue(),
+                        income.getDate(),
+                        income.getCategory().getName(),
+                        income.getCreatedAt() != null ? income.getCreatedAt() : ""));
+            }
+        }
+
+        writer.finish();
     }
 
     @Transactional(readOnly = true)
     public List<IncomeResponse> getIncomesByCategory(Long categoryId) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Income> incomes = incomeRepository.findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(currentUser.getId(), categoryId);
-        // Força o carregamento da categoria antes de converter para DTO
-        incomes.forEach(income -> income.getCategory().getName());
-        return incomes.stream()
-                .map(IncomeResponse::fromIncome)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(userId, categoryId);
     }
 
     @Transactional(readOnly = true)
     public List<IncomeResponse> getIncomesByDateRange(LocalDate startDate, LocalDate endDate) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Income> incomes = incomeRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(currentUser.getId(), startDate, endDate);
-        // Força o carregamento da categoria antes de converter para DTO
-        incomes.forEach(income -> income.getCategory().getName());
-        return incomes.stream()
-                .map(IncomeResponse::fromIncome)
-                .collect(Collectors.toList());
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(userId, startDate, endDate);
     }
 
     @Transactional(readOnly = true)
     public IncomeResponse getIncomeById(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Income income = incomeRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.findResponseById(id, userId)
                 .orElseThrow(() -> new RuntimeException("Receita não encontrada"));
-        return IncomeResponse.fromIncome(income);
     }
 
     @Transactional
     public IncomeResponse updateIncome(Long id, IncomeRequest request) {
-        User currentUser = userService.getCurrentUserEntity();
-        Income income = incomeRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Income income = incomeRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Receita não encontrada"));
 
-        // Verificar se a categoria existe e pertence ao usuário
-        Category category = categoryRepository.findByIdAndUserIdAndActiveTrue(request.getCategoryId(), currentUser.getId())
-                .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
+        // Verificar se a categoria existe, pertence ao usuário e é do tipo RECEITA (em memória)
+        CategoryResponse category = categoryCache.require(userId, request.getCategoryId(), Category.CategoryType.RECEITA);
 
-        // Verificar se a categoria é do tipo RECEITA
-        if (category.getType() != Category.CategoryType.RECEITA) {
-            throw new RuntimeException("A categoria deve ser do tipo RECEITA");
-        }
+        // Valores anteriores para ajustar o acumulado mensal e o saldo diário
+        Long oldCategoryId = income.getCategory().getId();
+        LocalDate oldDate = income.getDate();
+        BigDecimal oldValue = income.getValue();
 
         income.setDescription(request.getDescription());
         income.setValue(request.getValue());
         income.setDate(request.getDate());
-        income.setCategory(category);
+        income.setCategory(categoryRepository.getReferenceById(category.getId()));
 
         Income savedIncome = incomeRepository.save(income);
-        return IncomeResponse.fromIncome(savedIncome);
+        monthlyRollupService.move(userId, Category.CategoryType.RECEITA,
+                oldCategoryId, oldDate, oldValue,
+                category.getId(), savedIncome.getDate(), savedIncome.getValue());
+        balanceLedgerService.move(userId, Category.CategoryType.RECEITA,
+                oldDate, oldValue, savedIncome.getDate(), savedIncome.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.INCOME));
+        return IncomeResponse.fromIncome(savedIncome, category);
     }
 
     @Transactional
     public void deleteIncome(Long id) {
-        User currentUser = userService.getCurrentUserEntity();
-        Income income = incomeRepository.findByIdAndUserIdAndActiveTrue(id, currentUser.getId())
+        Long userId = userService.getCurrentUserId();
+        Income income = incomeRepository.findByIdAndUserIdAndActiveTrue(id, userId)
                 .orElseThrow(() -> new RuntimeException("Receita não encontrada"));
 
         // Soft delete
         income.setActive(false);
         incomeRepository.save(income);
+        monthlyRollupService.remove(userId, income.getCategory().getId(), Category.CategoryType.RECEITA,
+                income.getDate(), income.getValue());
+        balanceLedgerService.remove(userId, Category.CategoryType.RECEITA, income.getDate(), income.getValue());
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId, UserDataChangedEvent.Source.INCOME));
     }
 
     @Transactional(readOnly = true)
-    public List<IncomeResponse> searchIncomes(String search) {
-        User currentUser = userService.getCurrentUserEntity();
-        List<Income> incomes = incomeRepository.findByUserAndDescriptionContainingIgnoreCaseAndActiveTrue(currentUser.getId(), search);
-        // Força o carregamento da categoria antes de converter para DTO
-        incomes.forEach(income -> income.getCategory().getName());
-        return incomes.stream()
-                .map(IncomeResponse::fromIncome)
-                .collect(Collectors.toList());
+    public List<IncomeResponse> searchIncomes(String search, int page, int size) {
+        SearchQuery query = searchSettings.query(search, page, size);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.searchByDescription(userId, query.term(), query.pattern(), query.limit(), query.offset());
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalIncome() {
-        User currentUser = userService.getCurrentUserEntity();
-        return incomeRepository.getTotalIncomeByUser(currentUser.getId());
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.getTotalIncomeByUser(userId);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalIncomeByDateRange(LocalDate startDate, LocalDate endDate) {
-        User currentUser = userService.getCurrentUserEntity();
-        return incomeRepository.getTotalIncomeByUserAndDateRange(currentUser.getId(), startDate, endDate);
+        Long userId = userService.getCurrentUserId();
+        return incomeRepository.getTotalIncomeByUserAndDateRange(userId, startDate, endDate);
     }
 }
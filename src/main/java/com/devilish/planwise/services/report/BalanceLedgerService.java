@@ -0,0 +1,104 @@
+package com.devilish.planwise.services.report;
+
+import com.devilish.planwise.config.ReportingWorkload;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.repository.report.BalanceLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Mantém o saldo diário acumulado (tb_balance_ledger) junto com cada gravação de receita/despesa.
+// Uma gravação em uma data passada recalcula apenas os dias a partir dela.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedgerService {
+
+    // Primeira chave dos advisory locks do saldo diário; a segunda é o usuário
+    static final int LOCK_NAMESPACE = "planwise:balance-ledger".hashCode();
+
+    private final BalanceLedgerRepository balanceLedgerRepository;
+
+    // Sempre chamado dentro da transação que grava a receita/despesa
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long userId, Category.CategoryType type, LocalDate date, BigDecimal value) {
+        apply(userId, Map.of(date, signed(type, value)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long userId, Category.CategoryType type, LocalDate date, BigDecimal value) {
+        apply(userId, Map.of(date, signed(type, value).negate()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Long userId, Category.CategoryType type,
+                     LocalDate oldDate, BigDecimal oldValue,
+                     LocalDate newDate, BigDecimal newValue) {
+        // Mesmo dia: basta ajustar a diferença de valor
+        if (oldDate.equals(newDate)) {
+            BigDecimal difference = newValue.subtract(oldValue);
+            if (difference.signum() != 0) {
+                apply(userId, Map.of(newDate, signed(type, difference)));
+            }
+            return;
+        }
+
+        apply(userId, Map.of(oldDate, signed(type, oldValue).negate(), newDate, signed(type, newValue)));
+    }
+
+    // Importações: um upsert por dia e um único recálculo a partir do dia mais antigo
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Long userId, Category.CategoryType type, Collection<RollupEntry> entries) {
+        Map<LocalDate, BigDecimal> deltas = new TreeMap<>();
+        for (RollupEntry entry : entries) {
+            deltas.merge(entry.date(), signed(type, entry.value()), BigDecimal::add);
+        }
+        apply(userId, deltas);
+    }
+
+    // Reconstrói o saldo diário de todos os usuários a partir das receitas e despesas ativas
+    // Varre as tabelas inteiras: roda no pool de relatórios e sem statement_timeout
+    @ReportingWorkload
+    @Transactional
+    public Map<String, Integer> rebuild() {
+        balanceLedgerRepository.disableStatementTimeout();
+        int removed = balanceLedgerRepository.deleteAllEntries();
+        int days = balanceLedgerRepository.rebuildEntries();
+
+        log.info("Saldo diário reconstruído: {} removidos, {} dias", removed, days);
+
+        return Map.of(
+                "removed", removed,
+                "days", days
+        );
+    }
+
+    private void apply(Long userId, Map<LocalDate, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        balanceLedgerRepository.lockUser(LOCK_NAMESPACE, userId);
+        LocalDate earliest = null;
+        for (Map.Entry<LocalDate, BigDecimal> delta : deltas.entrySet()) {
+            balanceLedgerRepository.applyDelta(userId, delta.getKey(), delta.getValue());
+            if (earliest == null || delta.getKey().isBefore(earliest)) {
+                earliest = delta.getKey();
+            }
+        }
+        balanceLedgerRepository.recomputeFrom(userId, earliest);
+    }
+
+    // Receitas somam e despesas subtraem do saldo
+    private static BigDecimal signed(Category.CategoryType type, BigDecimal value) {
+        return type == Category.CategoryType.RECEITA ? value : value.negate();
+    }
+}
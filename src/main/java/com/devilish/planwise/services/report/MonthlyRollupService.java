@@ -0,0 +1,94 @@
+package com.devilish.planwise.services.report;
+
+import com.devilish.planwise.config.ReportingWorkload;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.repository.report.MonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupService {
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+
+    // Sempre chamado dentro da transação que grava a receita/despesa
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long userId, Long categoryId, Category.CategoryType type, LocalDate date, BigDecimal value) {
+        monthlyRollupRepository.applyDelta(userId, categoryId, date.withDayOfMonth(1), type.name(), value, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long userId, Long categoryId, Category.CategoryType type, LocalDate date, BigDecimal value) {
+        monthlyRollupRepository.applyDelta(userId, categoryId, date.withDayOfMonth(1), type.name(), value.negate(), -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Long userId, Category.CategoryType type,
+                     Long oldCategoryId, LocalDate oldDate, BigDecimal oldValue,
+                     Long newCategoryId, LocalDate newDate, BigDecimal newValue) {
+        LocalDate oldMonth = oldDate.withDayOfMonth(1);
+        LocalDate newMonth = newDate.withDayOfMonth(1);
+
+        // Mesma categoria e mesmo mês: basta ajustar a diferença de valor
+        if (Objects.equals(oldCategoryId, newCategoryId) && oldMonth.equals(newMonth)) {
+            BigDecimal difference = newValue.subtract(oldValue);
+            if (difference.signum() != 0) {
+                monthlyRollupRepository.applyDelta(userId, newCategoryId, newMonth, type.name(), difference, 0);
+            }
+            return;
+        }
+
+        remove(userId, oldCategoryId, type, oldDate, oldValue);
+        add(userId, newCategoryId, type, newDate, newValue);
+    }
+
+    // Importações: agrega por (categoria, mês) e faz um único upsert por grupo
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Long userId, Category.CategoryType type, Collection<RollupEntry> entries) {
+        Map<RollupKey, BigDecimal> totals = new HashMap<>();
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (RollupEntry entry : entries) {
+            RollupKey key = new RollupKey(entry.categoryId(), entry.date().withDayOfMonth(1));
+            totals.merge(key, entry.value(), BigDecimal::add);
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        totals.forEach((key, total) -> monthlyRollupRepository.applyDelta(
+                userId, key.categoryId(), key.month(), type.name(), total, counts.get(key)));
+    }
+
+    // Reconstrói todos os acumulados a partir das receitas e despesas ativas
+    // Varre as tabelas inteiras: roda no pool de relatórios e sem statement_timeout
+    @ReportingWorkload
+    @Transactional
+    public Map<String, Integer> rebuild() {
+        monthlyRollupRepository.disableStatementTimeout();
+        int removed = monthlyRollupRepository.deleteAllRollups();
+        int expenseRows = monthlyRollupRepository.rebuildExpenseRollups();
+        int incomeRows = monthlyRollupRepository.rebuildIncomeRollups();
+
+        log.info("Acumulados mensais reconstruídos: {} removidos, {} de despesas, {} de receitas",
+                removed, expenseRows, incomeRows);
+
+        return Map.of(
+                "removed", removed,
+                "expenseRows", expenseRows,
+                "incomeRows", incomeRows
+        );
+    }
+
+    private record RollupKey(Long categoryId, LocalDate month) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.devilish.planwise.services.report;
+
+import com.devilish.planwise.services.user.UserDataVersions;
+import com.devilish.planwise.services.user.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class ReportCache {
+
+    private final UserService userService;
+    private final UserDataVersions dataVersions;
+    private final Cache<ReportCacheKey, Object> cache;
+    private final SingleFlight singleFlight;
+
+    public ReportCache(UserService userService,
+                       UserDataVersions dataVersions,
+                       MeterRegistry meterRegistry,
+                       @Value("${planwise.reports.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${planwise.reports.cache.ttl:5m}") Duration ttl) {
+        this.userService = userService;
+        this.dataVersions = dataVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reports");
+        this.singleFlight = new SingleFlight("reports", meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportKind kind, List<?> parameters, Supplier<T> loader) {
+        Long userId = userService.getCurrentUserId();
+        ReportCacheKey key = new ReportCacheKey(userId, dataVersions.current(userId), kind, parameters);
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        // Abas e dispositivos pedindo o mesmo relatório ao mesmo tempo, ou logo após a expiração,
+        // aguardam um único cálculo. Fora do cache para não travar outras chaves durante a consulta.
+        return singleFlight.execute(key, () -> {
+            T report = loader.get();
+            cache.put(key, report);
+            return report;
+        });
+    }
+
+    // A geração é a versão dos dados do usuário (UserDataVersions), avançada a cada gravação confirmada.
+    // Entradas de gerações anteriores nunca mais são lidas e saem por tamanho ou TTL.
+    // Um relatório calculado antes do commit fica gravado com a geração antiga, então nunca é servido depois dele.
+    private record ReportCacheKey(Long userId, String generation, ReportKind kind, List<?> parameters) {
+    }
+}
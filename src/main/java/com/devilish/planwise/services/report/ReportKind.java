@@ -0,0 +1,15 @@
+package com.devilish.planwise.services.report;
+
+public enum ReportKind {
+    FINANCIAL_SUMMARY,
+    FINANCIAL_SUMMARY_BY_DATE_RANGE,
+    GOALS_SUMMARY,
+    MONTHLY_SUMMARY,
+    YEARLY_SUMMARY,
+    EXPENSE_STATS,
+    INCOME_STATS,
+    TIMESERIES,
+    CATEGORY_BREAKDOWN,
+    BALANCE,
+    BALANCE_BY_DATE_RANGE
+}
@@ -1,9 +1,19 @@
 package com.devilish.planwise.services.report;
 
+import com.devilish.planwise.config.ReportingWorkload;
+import com.devilish.planwise.dto.report.BalanceRangeResponse;
+import com.devilish.planwise.dto.report.BalanceResponse;
+import com.devilish.planwise.dto.report.CategoryBreakdownResponse;
 import com.devilish.planwise.dto.report.FinancialSummaryResponse;
-import com.devilish.planwise.repository.income.IncomeRepository;
-import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.dto.report.TimeseriesResponse;
+import com.devilish.planwise.entities.Category;
 import com.devilish.planwise.repository.goal.GoalRepository;
+import com.devilish.planwise.repository.report.BalanceLedgerRepository;
+import com.devilish.planwise.repository.report.BalanceRange;
+import com.devilish.planwise.repository.report.CategoryMonth;
+import com.devilish.planwise.repository.report.FinancialTotals;
+import com.devilish.planwise.repository.report.ReportRepository;
+import com.devilish.planwise.repository.report.TimeseriesPoint;
 import com.devilish.planwise.services.user.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -11,63 +21,48 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@ReportingWorkload
 public class ReportService {
 
-    private final IncomeRepository incomeRepository;
-    private final ExpenseRepository expenseRepository;
+    // Limita a grade categoria x mês devolvida pela comparação mês a mês
+    public static final int CATEGORY_BREAKDOWN_MAX_MONTHS = 36;
+
     private final GoalRepository goalRepository;
+    private final ReportRepository reportRepository;
+    private final BalanceLedgerRepository balanceLedgerRepository;
     private final UserService userService;
 
     @Transactional(readOnly = true)
     public FinancialSummaryResponse getFinancialSummary() {
-        Long userId = userService.getCurrentUserEntity().getId();
-        
-        BigDecimal totalIncome = incomeRepository.getTotalIncomeByUser(userId);
-        BigDecimal totalExpense = expenseRepository.getTotalExpenseByUser(userId);
+        Long userId = userService.getCurrentUserId();
         
-        // Contar transações
-        long incomeCount = incomeRepository.countByUserIdAndActiveTrue(userId);
-        long expenseCount = expenseRepository.countByUserIdAndActiveTrue(userId);
+        // Totais e contagens em uma única consulta
+        FinancialTotals totals = reportRepository.getFinancialTotals(userId);
         
-        return FinancialSummaryResponse.of(
-            totalIncome != null ? totalIncome : BigDecimal.ZERO,
-            totalExpense != null ? totalExpense : BigDecimal.ZERO,
-            null, // startDate
-            null, // endDate
-            (int) incomeCount,
-            (int) expenseCount
-        );
+        return toFinancialSummary(totals, null, null);
     }
 
     @Transactional(readOnly = true)
     public FinancialSummaryResponse getFinancialSummaryByDateRange(LocalDate startDate, LocalDate endDate) {
-        Long userId = userService.getCurrentUserEntity().getId();
+        Long userId = userService.getCurrentUserId();
         
-        BigDecimal totalIncome = incomeRepository.getTotalIncomeByUserAndDateRange(userId, startDate, endDate);
-        BigDecimal totalExpense = expenseRepository.getTotalExpenseByUserAndDateRange(userId, startDate, endDate);
+        // Totais e contagens do período em uma única consulta
+        FinancialTotals totals = getTotalsByPeriod(userId, startDate, endDate);
         
-        // Contar transações no período
-        long incomeCount = incomeRepository.countByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(userId, startDate, endDate);
-        long expenseCount = expenseRepository.countByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(userId, startDate, endDate);
-        
-        return FinancialSummaryResponse.of(
-            totalIncome != null ? totalIncome : BigDecimal.ZERO,
-            totalExpense != null ? totalExpense : BigDecimal.ZERO,
-            startDate,
-            endDate,
-            (int) incomeCount,
-            (int) expenseCount
-        );
+        return toFinancialSummary(totals, startDate, endDate);
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> getGoalsSummary() {
-        Long userId = userService.getCurrentUserEntity().getId();
+        Long userId = userService.getCurrentUserId();
         
         Map<String, Object> summary = new HashMap<>();
         
@@ -82,21 +77,19 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getMonthlySummary(int year, int month) {
-        Long userId = userService.getCurrentUserEntity().getId();
+        Long userId = userService.getCurrentUserId();
         
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
         
-        BigDecimal totalIncome = incomeRepository.getTotalIncomeByUserAndDateRange(userId, startDate, endDate);
-        BigDecimal totalExpense = expenseRepository.getTotalExpenseByUserAndDateRange(userId, startDate, endDate);
+        FinancialTotals totals = getTotalsByPeriod(userId, startDate, endDate);
         
         Map<String, Object> summary = new HashMap<>();
         summary.put("year", year);
         summary.put("month", month);
-        summary.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-        summary.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
-        summary.put("balance", (totalIncome != null ? totalIncome : BigDecimal.ZERO)
-                .subtract(totalExpense != null ? totalExpense : BigDecimal.ZERO));
+        summary.put("totalIncome", totals.getTotalIncome());
+        summary.put("totalExpense", totals.getTotalExpense());
+        summary.put("balance", totals.getBalance());
         summary.put("startDate", startDate);
         summary.put("endDate", endDate);
         
@@ -105,23 +98,121 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getYearlySummary(int year) {
-        Long userId = userService.getCurrentUserEntity().getId();
+        Long userId = userService.getCurrentUserId();
         
         LocalDate startDate = LocalDate.of(year, 1, 1);
         LocalDate endDate = LocalDate.of(year, 12, 31);
         
-        BigDecimal totalIncome = incomeRepository.getTotalIncomeByUserAndDateRange(userId, startDate, endDate);
-        BigDecimal totalExpense = expenseRepository.getTotalExpenseByUserAndDateRange(userId, startDate, endDate);
+        FinancialTotals totals = getTotalsByPeriod(userId, startDate, endDate);
         
         Map<String, Object> summary = new HashMap<>();
         summary.put("year", year);
-        summary.put("totalIncome", totalIncome != null ? totalIncome : BigDecimal.ZERO);
-        summary.put("totalExpense", totalExpense != null ? totalExpense : BigDecimal.ZERO);
-        summary.put("balance", (totalIncome != null ? totalIncome : BigDecimal.ZERO)
-                .subtract(totalExpense != null ? totalExpense : BigDecimal.ZERO));
+        summary.put("totalIncome", totals.getTotalIncome());
+        summary.put("totalExpense", totals.getTotalExpense());
+        summary.put("balance", totals.getBalance());
         summary.put("startDate", startDate);
         summary.put("endDate", endDate);
         
         return summary;
     }
+
+    // Série de receitas, despesas e saldo em uma única consulta, com os intervalos vazios preenchidos
+    @Transactional(readOnly = true)
+    public TimeseriesResponse getTimeseries(TimeseriesGranularity granularity, LocalDate from, LocalDate to) {
+        Long userId = userService.getCurrentUserId();
+        TimeseriesRange range = TimeseriesRange.of(granularity, from, to);
+
+        List<TimeseriesPoint> points;
+        if (granularity == TimeseriesGranularity.MONTH) {
+            RollupWindow window = RollupWindow.of(from, to);
+            points = reportRepository.getMonthlyTimeseries(userId, granularity.getStep(),
+                    window.startDate(), window.endDate(), window.monthsFrom(), window.monthsTo(),
+                    range.firstBucket(), range.lastBucket());
+        } else {
+            points = reportRepository.getTimeseries(userId, granularity.getUnit(), granularity.getStep(),
+                    from, to, range.firstBucket(), range.lastBucket());
+        }
+
+        return new TimeseriesResponse(granularity.getUnit(), from, to,
+                points.stream().map(TimeseriesResponse.Point::fromTimeseriesPoint).toList());
+    }
+
+    // Totais, participação e variação mês a mês por categoria em uma única consulta
+    @Transactional(readOnly = true)
+    public CategoryBreakdownResponse getCategoryBreakdown(LocalDate from, LocalDate to) {
+        Long userId = userService.getCurrentUserId();
+        TimeseriesRange range = TimeseriesRange.of(TimeseriesGranularity.MONTH, from, to);
+        if (range.buckets() > CATEGORY_BREAKDOWN_MAX_MONTHS) {
+            throw new IllegalArgumentException("Período muito longo: " + range.buckets()
+                    + " meses (máximo " + CATEGORY_BREAKDOWN_MAX_MONTHS + ")");
+        }
+
+        RollupWindow window = RollupWindow.of(from, to);
+        List<CategoryMonth> months = reportRepository.getCategoryBreakdown(userId,
+                window.startDate(), window.endDate(), window.monthsFrom(), window.monthsTo(),
+                range.firstBucket().minusMonths(1), range.firstBucket(), range.lastBucket());
+
+        return toCategoryBreakdown(months, from, to);
+    }
+
+    // Saldo acumulado ao fim do dia, lido do saldo diário sem somar o histórico
+    @Transactional(readOnly = true)
+    public BalanceResponse getBalance(LocalDate date) {
+        Long userId = userService.getCurrentUserId();
+        return new BalanceResponse(date, balanceLedgerRepository.getBalanceAsOf(userId, date));
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceRangeResponse getBalanceByDateRange(LocalDate startDate, LocalDate endDate) {
+        Long userId = userService.getCurrentUserId();
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("A data inicial deve ser anterior à data final");
+        }
+
+        BalanceRange range = balanceLedgerRepository.getBalanceRange(userId, startDate, endDate);
+        return new BalanceRangeResponse(startDate, endDate, range.getOpeningBalance(), range.getClosingBalance(),
+                range.getClosingBalance().subtract(range.getOpeningBalance()));
+    }
+
+    // Meses completos vêm do acumulado mensal; apenas as bordas do período varrem as transações
+    private FinancialTotals getTotalsByPeriod(Long userId, LocalDate startDate, LocalDate endDate) {
+        RollupWindow window = RollupWindow.of(startDate, endDate);
+        return reportRepository.getFinancialTotalsByPeriod(
+                userId, window.startDate(), window.endDate(), window.monthsFrom(), window.monthsTo());
+    }
+
+    private FinancialSummaryResponse toFinancialSummary(FinancialTotals totals, LocalDate startDate, LocalDate endDate) {
+        return FinancialSummaryResponse.builder()
+                .totalIncome(totals.getTotalIncome())
+                .totalExpense(totals.getTotalExpense())
+                .balance(totals.getBalance())
+                .startDate(startDate)
+                .endDate(endDate)
+                .totalTransactions(totals.getTotalTransactions().intValue())
+                .incomeCount(totals.getIncomeCount().intValue())
+                .expenseCount(totals.getExpenseCount().intValue())
+                .build();
+    }
+
+    // As linhas chegam ordenadas por tipo, total da categoria e mês: agrupa preservando a ordem
+    private CategoryBreakdownResponse toCategoryBreakdown(List<CategoryMonth> months, LocalDate from, LocalDate to) {
+        Map<List<Object>, CategoryBreakdownResponse.CategoryTotals> categories = new LinkedHashMap<>();
+        for (CategoryMonth month : months) {
+            categories.computeIfAbsent(List.of(month.getCategoryId(), month.getType()),
+                            key -> CategoryBreakdownResponse.CategoryTotals.fromCategoryMonth(month))
+                    .getMonths().add(CategoryBreakdownResponse.MonthChange.fromCategoryMonth(month));
+        }
+
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        for (CategoryBreakdownResponse.CategoryTotals category : categories.values()) {
+            if (category.getType() == Category.CategoryType.RECEITA) {
+                totalIncome = totalIncome.add(category.getTotal());
+            } else {
+                totalExpense = totalExpense.add(category.getTotal());
+            }
+        }
+
+        return new CategoryBreakdownResponse(from, to, totalIncome, totalExpense, new ArrayList<>(categories.values()));
+    }
 }
@@ -0,0 +1,8 @@
+package com.devilish.planwise.services.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Lançamento a ser somado ao acumulado mensal e ao saldo diário em gravações em lote
+public record RollupEntry(Long categoryId, LocalDate date, BigDecimal value) {
+}
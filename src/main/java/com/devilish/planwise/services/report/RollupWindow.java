@@ -0,0 +1,23 @@
+package com.devilish.planwise.services.report;
+
+import java.time.LocalDate;
+
+// Divide um período em meses completos (lidos do acumulado mensal) e bordas parciais
+// (lidas das transações): [startDate, monthsFrom) e [monthsTo, endDate]
+public record RollupWindow(LocalDate startDate, LocalDate endDate, LocalDate monthsFrom, LocalDate monthsTo) {
+
+    public static RollupWindow of(LocalDate startDate, LocalDate endDate) {
+        LocalDate monthsFrom = startDate.getDayOfMonth() == 1
+                ? startDate
+                : startDate.withDayOfMonth(1).plusMonths(1);
+        LocalDate monthsTo = endDate.getDayOfMonth() == endDate.lengthOfMonth()
+                ? endDate.plusDays(1)
+                : endDate.withDayOfMonth(1);
+
+        // Nenhum mês completo no período: tudo vem das transações
+        if (!monthsFrom.isBefore(monthsTo)) {
+            return new RollupWindow(startDate, endDate, startDate, startDate);
+        }
+        return new RollupWindow(startDate, endDate, monthsFrom, monthsTo);
+    }
+}
@@ -0,0 +1,69 @@
+package com.devilish.planwise.services.report;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Chamadas simultâneas com a mesma chave compartilham uma única execução em andamento:
+// a primeira calcula, as demais esperam o mesmo resultado (ou a mesma exceção).
+// Nada é guardado depois que a execução termina; o cache fica a cargo de quem chama.
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("planwise.single-flight.calls")
+                .description("Chamadas que executaram o cálculo ou aguardaram uma execução em andamento")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder("planwise.single-flight.calls")
+                .description("Chamadas que executaram o cálculo ou aguardaram uma execução em andamento")
+                .tag("name", name)
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            collapsed.increment();
+            return (T) await(running);
+        }
+
+        executed.increment();
+        try {
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
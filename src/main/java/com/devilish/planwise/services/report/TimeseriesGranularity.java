@@ -0,0 +1,39 @@
+package com.devilish.planwise.services.report;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+@Getter
+@RequiredArgsConstructor
+public enum TimeseriesGranularity {
+    // Semanas começam na segunda-feira, como o date_trunc('week') do PostgreSQL
+    DAY("day", "1 day", ChronoUnit.DAYS),
+    WEEK("week", "1 week", ChronoUnit.WEEKS),
+    MONTH("month", "1 month", ChronoUnit.MONTHS);
+
+    private final String unit;
+    private final String step;
+    private final ChronoUnit chronoUnit;
+
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public static TimeseriesGranularity from(String value) {
+        for (TimeseriesGranularity granularity : values()) {
+            if (granularity.unit.equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Granularidade inválida: " + value);
+    }
+}
@@ -0,0 +1,27 @@
+package com.devilish.planwise.services.report;
+
+import java.time.LocalDate;
+
+// Período [from, to] dividido em intervalos da granularidade pedida; firstBucket e lastBucket são
+// o início do primeiro e do último intervalo. Períodos com intervalos demais são recusados.
+public record TimeseriesRange(TimeseriesGranularity granularity, LocalDate from, LocalDate to,
+                              LocalDate firstBucket, LocalDate lastBucket, int buckets) {
+
+    // Um ano de dias, ~7 anos de semanas ou ~30 anos de meses
+    public static final int MAX_BUCKETS = 366;
+
+    public static TimeseriesRange of(TimeseriesGranularity granularity, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("A data inicial deve ser anterior à data final");
+        }
+
+        LocalDate firstBucket = granularity.truncate(from);
+        LocalDate lastBucket = granularity.truncate(to);
+        long buckets = granularity.getChronoUnit().between(firstBucket, lastBucket) + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Período muito longo para a granularidade " + granularity.getUnit()
+                    + ": " + buckets + " intervalos (máximo " + MAX_BUCKETS + ")");
+        }
+        return new TimeseriesRange(granularity, from, to, firstBucket, lastBucket, (int) buckets);
+    }
+}
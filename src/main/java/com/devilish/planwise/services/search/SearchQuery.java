@@ -0,0 +1,9 @@
+package com.devilish.planwise.services.search;
+
+// Termo já normalizado e janela da página, limitada ao máximo de resultados por busca
+public record SearchQuery(String term, String pattern, int limit, int offset) {
+
+    public boolean isEmpty() {
+        return term.isEmpty() || limit <= 0;
+    }
+}
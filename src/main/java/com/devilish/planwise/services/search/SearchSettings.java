@@ -0,0 +1,33 @@
+package com.devilish.planwise.services.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SearchSettings {
+
+    private final int maxResults;
+    private final int maxPageSize;
+
+    public SearchSettings(@Value("${planwise.search.max-results:200}") int maxResults,
+                          @Value("${planwise.search.max-page-size:50}") int maxPageSize) {
+        this.maxResults = maxResults;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Nenhuma página ultrapassa maxResults: buscas muito amplas devolvem só os mais relevantes
+    public SearchQuery query(String search, int page, int size) {
+        String term = search == null ? "" : search.trim();
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        long offset = Math.min((long) Math.max(0, page) * pageSize, maxResults);
+        int limit = (int) Math.min(pageSize, maxResults - offset);
+        return new SearchQuery(term, escapeLike(term), limit, (int) offset);
+    }
+
+    // O termo é usado dentro de ILIKE '%...%'; curingas digitados pelo usuário são tratados como texto
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,87 @@
+package com.devilish.planwise.services.user;
+
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.user.UserDataVersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão dos dados financeiros de cada usuário, base das chaves do ReportCache e dos ETags.
+// Fica na memória de cada nó: a verificação de um GET não vai ao banco. Cada gravação emite um NOTIFY
+// na própria transação (sem linha disputada); o nó que gravou avança a versão logo após o commit e os
+// demais ao receber a notificação (DataVersionListener), em milissegundos.
+// Os valores saem de um relógio do nó e levam a época da inscrição no canal: nós diferentes, ou o mesmo nó
+// antes e depois de uma reconexão, nunca emitem a mesma versão. Sem sessão fixa, trocar de nó custa
+// um 200 em vez de um 304, nunca um 304 indevido.
+@Component
+public class UserDataVersions {
+
+    private final UserDataVersionRepository userDataVersionRepository;
+    private final Cache<Long, Long> versions;
+    private final AtomicLong clock = new AtomicLong();
+    private volatile String epoch = newEpoch();
+    private volatile boolean subscribed;
+
+    public UserDataVersions(UserDataVersionRepository userDataVersionRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${planwise.data-versions.maximum-size:100000}") long maximumSize) {
+        this.userDataVersionRepository = userDataVersionRepository;
+        // Um usuário despejado recebe um valor novo do relógio na próxima leitura: só um 200 a mais
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "data-versions");
+    }
+
+    public String current(Long userId) {
+        if (!subscribed) {
+            // Sem o canal, alterações feitas em outros nós não chegariam: cada leitura recebe uma versão nova
+            return epoch + "." + clock.incrementAndGet();
+        }
+        return epoch + "." + versions.get(userId, id -> clock.incrementAndGet());
+    }
+
+    // Notificações anteriores à inscrição podem ter se perdido: começa uma época nova
+    public void subscribed() {
+        epoch = newEpoch();
+        versions.invalidateAll();
+        subscribed = true;
+    }
+
+    public void unsubscribed() {
+        subscribed = false;
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    // Gravação confirmada em outro nó (ou a própria, que já foi aplicada após o commit)
+    public void changed(Long userId) {
+        versions.put(userId, clock.incrementAndGet());
+    }
+
+    // Na transação da gravação: o NOTIFY é entregue aos outros nós apenas se ela for confirmada
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserDataChanging(UserDataChangedEvent event) {
+        userDataVersionRepository.notifyChanged(event.userId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        changed(event.userId());
+    }
+
+    private static String newEpoch() {
+        return Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+    }
+}
@@ -1,15 +1,19 @@
 package com.devilish.planwise.services.user;
 
+import com.devilish.planwise.config.AuthenticatedUser;
 import com.devilish.planwise.dto.user.PasswordChangeRequest;
 import com.devilish.planwise.dto.user.UserResponse;
 import com.devilish.planwise.dto.user.UserUpdateRequest;
 import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserStatusChangedEvent;
 import com.devilish.planwise.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -22,6 +26,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<UserResponse> getAllUsers() {
@@ -40,11 +45,7 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public UserResponse getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        User user = getCurrentUserEntity();
         
         return UserResponse.fromUser(user);
     }
@@ -68,11 +69,7 @@ public class UserService {
     }
 
     public UserResponse updateCurrentUser(UserUpdateRequest request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        User user = getCurrentUserEntity();
 
         // Verificar se o email já existe em outro usuário
         if (!user.getEmail().equals(request.getEmail())) {
@@ -88,12 +85,10 @@ public class UserService {
         return UserResponse.fromUser(savedUser);
     }
 
+    // Fora de transação: as duas operações de BCrypt esperam no pool sem prender conexão
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void changePassword(PasswordChangeRequest request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        User user = getCurrentUserEntity();
 
         // Verificar senha atual
         if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
@@ -101,8 +96,7 @@ public class UserService {
         }
 
         // Atualizar senha
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        userRepository.updatePassword(user.getId(), passwordEncoder.encode(request.getNewPassword()));
     }
 
     public void deactivateUser(Long id) {
@@ -111,6 +105,7 @@ public class UserService {
         
         user.setActive(false);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(id));
     }
 
     public void activateUser(Long id) {
@@ -119,6 +114,7 @@ public class UserService {
         
         user.setActive(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(id));
     }
 
     public void deleteUser(Long id) {
@@ -127,6 +123,7 @@ public class UserService {
         }
         
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(id));
     }
 
     public UserResponse updateUserRole(Long id, User.Role role) {
@@ -135,14 +132,48 @@ public class UserService {
         
         user.setRole(role);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(id));
         return UserResponse.fromUser(savedUser);
     }
 
+    // O id vem do principal montado a partir do token, evitando nova consulta
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getCurrentUserId() {
+        Long userId = getAuthenticatedUserId();
+        return userId != null ? userId : getCurrentUserEntity().getId();
+    }
+
+    // Referência sem SELECT para associar o usuário atual em gravações
+    @Transactional(propagation = Propagation.MANDATORY)
+    public User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     @Transactional(readOnly = true)
     public User getCurrentUserEntity() {
+        Long userId = getAuthenticatedUserId();
+        if (userId != null) {
+            return userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        }
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
     }
+
+    private Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.id();
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,57 @@
+package com.devilish.planwise.services.user;
+
+import com.devilish.planwise.config.CacheLoads;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserStatusChangedEvent;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Situação (ativo/perfil) dos usuários autenticados por token.
+// Desativações e mudanças de perfil valem no máximo após o TTL, ou imediatamente nesta instância.
+@Component
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, Status> cache;
+
+    public UserStatusCache(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${planwise.security.user-status.maximum-size:100000}") long maximumSize,
+                           @Value("${planwise.security.user-status.ttl:60s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "user-status");
+    }
+
+    // Retorna null quando o usuário não existe mais
+    public Status get(Long userId) {
+        return CacheLoads.get(cache, userId, id -> userRepository.findStatusById(id)
+                .map(status -> new Status(Boolean.TRUE.equals(status.getActive()), status.getRole()))
+                .orElse(null));
+    }
+
+    public void evict(Long userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        evict(event.userId());
+    }
+
+    public record Status(boolean active, User.Role role) {
+    }
+}
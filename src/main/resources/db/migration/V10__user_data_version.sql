@@ -0,0 +1,8 @@
+-- Versão dos dados financeiros de cada usuário, compartilhada por todos os nós: incrementada na
+-- mesma transação de cada gravação (despesas, receitas, metas, categorias e varredura de metas vencidas)
+CREATE TABLE IF NOT EXISTS tb_user_data_version (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_user_data_version PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_data_version_user FOREIGN KEY (user_id) REFERENCES tb_user (id)
+);
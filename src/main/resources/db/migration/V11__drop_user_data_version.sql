@@ -0,0 +1,3 @@
+-- A versão dos dados de cada usuário passou para a memória de cada nó, propagada por NOTIFY
+-- (canal planwise_data_versions); a linha por usuário serializava as gravações do mesmo usuário
+DROP TABLE IF EXISTS tb_user_data_version;
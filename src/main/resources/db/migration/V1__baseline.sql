@@ -0,0 +1,66 @@
+-- Esquema base das cinco tabelas, equivalente ao que o Hibernate gerava com ddl-auto
+
+CREATE TABLE tb_user (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name         VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    password     VARCHAR(255) NOT NULL,
+    data_criacao TIMESTAMP(6),
+    ativo        BOOLEAN,
+    role         VARCHAR(255) CHECK (role IN ('USER', 'ADMIN')),
+    CONSTRAINT pk_user PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE tb_category (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name         VARCHAR(255) NOT NULL,
+    type         VARCHAR(255) NOT NULL CHECK (type IN ('RECEITA', 'DESPESA')),
+    data_criacao TIMESTAMP(6),
+    ativo        BOOLEAN,
+    user_id      BIGINT       NOT NULL,
+    CONSTRAINT pk_category PRIMARY KEY (id),
+    CONSTRAINT fk_category_user FOREIGN KEY (user_id) REFERENCES tb_user (id)
+);
+
+CREATE TABLE tb_expense (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    description  VARCHAR(255)   NOT NULL,
+    value        NUMERIC(10, 2) NOT NULL,
+    date         DATE           NOT NULL,
+    data_criacao TIMESTAMP(6),
+    ativo        BOOLEAN,
+    user_id      BIGINT         NOT NULL,
+    category_id  BIGINT         NOT NULL,
+    CONSTRAINT pk_expense PRIMARY KEY (id),
+    CONSTRAINT fk_expense_user FOREIGN KEY (user_id) REFERENCES tb_user (id),
+    CONSTRAINT fk_expense_category FOREIGN KEY (category_id) REFERENCES tb_category (id)
+);
+
+CREATE TABLE tb_income (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    description  VARCHAR(255)   NOT NULL,
+    value        NUMERIC(10, 2) NOT NULL,
+    date         DATE           NOT NULL,
+    data_criacao TIMESTAMP(6),
+    ativo        BOOLEAN,
+    user_id      BIGINT         NOT NULL,
+    category_id  BIGINT         NOT NULL,
+    CONSTRAINT pk_income PRIMARY KEY (id),
+    CONSTRAINT fk_income_user FOREIGN KEY (user_id) REFERENCES tb_user (id),
+    CONSTRAINT fk_income_category FOREIGN KEY (category_id) REFERENCES tb_category (id)
+);
+
+CREATE TABLE tb_goal (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    description   VARCHAR(255)   NOT NULL,
+    target_value  NUMERIC(10, 2) NOT NULL,
+    current_value NUMERIC(10, 2) NOT NULL,
+    deadline      DATE           NOT NULL,
+    status        VARCHAR(255)   NOT NULL CHECK (status IN ('EM_ANDAMENTO', 'ATINGIDA', 'VENCIDA')),
+    data_criacao  TIMESTAMP(6),
+    ativo         BOOLEAN,
+    user_id       BIGINT         NOT NULL,
+    CONSTRAINT pk_goal PRIMARY KEY (id),
+    CONSTRAINT fk_goal_user FOREIGN KEY (user_id) REFERENCES tb_user (id)
+);
@@ -0,0 +1,14 @@
+-- Acumulados mensais por usuário/categoria/tipo (IF NOT EXISTS: bancos já criados pelo Hibernate)
+CREATE TABLE IF NOT EXISTS tb_monthly_rollup (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     BIGINT         NOT NULL,
+    category_id BIGINT         NOT NULL,
+    year_month  DATE           NOT NULL,
+    type        VARCHAR(255)   NOT NULL CHECK (type IN ('RECEITA', 'DESPESA')),
+    total       NUMERIC(14, 2) NOT NULL,
+    count       BIGINT         NOT NULL,
+    CONSTRAINT pk_monthly_rollup PRIMARY KEY (id),
+    CONSTRAINT uk_monthly_rollup_key UNIQUE (user_id, category_id, year_month, type),
+    CONSTRAINT fk_monthly_rollup_user FOREIGN KEY (user_id) REFERENCES tb_user (id),
+    CONSTRAINT fk_monthly_rollup_category FOREIGN KEY (category_id) REFERENCES tb_category (id)
+);
@@ -0,0 +1,10 @@
+-- Ids de despesas/receitas passam a vir de sequências (allocationSize = 50, pooled optimizer).
+-- O pooled usa o valor da sequência como topo do bloco, por isso ela começa 50 acima do maior id.
+CREATE SEQUENCE IF NOT EXISTS tb_expense_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tb_income_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('tb_expense_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_expense));
+SELECT setval('tb_income_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_income));
+
+ALTER TABLE tb_expense ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE tb_income ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,41 @@
+-- Índices parciais (somente registros ativos) nomeados pelo método de repositório que atendem.
+-- Índices criados anteriormente pelo Hibernate a partir de @Index são substituídos.
+DROP INDEX IF EXISTS idx_expense_user_keyset;
+DROP INDEX IF EXISTS idx_income_user_keyset;
+DROP INDEX IF EXISTS idx_goal_user_keyset;
+
+-- ExpenseRepository: findByUserIdAndActiveTrueOrderByDateDesc, findFirstKeysetPage, findKeysetPageAfter,
+-- streamByUserId, findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc
+CREATE INDEX IF NOT EXISTS ix_expense_find_by_user_id_and_active_true_order_by_date_desc
+    ON tb_expense (user_id, date DESC, id DESC) WHERE ativo = true;
+
+-- ExpenseRepository: findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc
+CREATE INDEX IF NOT EXISTS ix_expense_find_by_user_id_and_category_id_and_active_true
+    ON tb_expense (user_id, category_id, date DESC) WHERE ativo = true;
+
+-- IncomeRepository: mesmos métodos da despesa
+CREATE INDEX IF NOT EXISTS ix_income_find_by_user_id_and_active_true_order_by_date_desc
+    ON tb_income (user_id, date DESC, id DESC) WHERE ativo = true;
+
+CREATE INDEX IF NOT EXISTS ix_income_find_by_user_id_and_category_id_and_active_true
+    ON tb_income (user_id, category_id, date DESC) WHERE ativo = true;
+
+-- GoalRepository: findByUserIdAndActiveTrueOrderByCreatedAtDesc, findFirstKeysetPage, findKeysetPageAfter
+CREATE INDEX IF NOT EXISTS ix_goal_find_by_user_id_and_active_true_order_by_created_at
+    ON tb_goal (user_id, data_criacao DESC, id DESC) WHERE ativo = true;
+
+-- GoalRepository: findByUserIdAndStatusAndActiveTrueOrderByCreatedAtDesc, countByUserAndStatusAndActiveTrue
+CREATE INDEX IF NOT EXISTS ix_goal_find_by_user_id_and_status_and_active_true
+    ON tb_goal (user_id, status, data_criacao DESC) WHERE ativo = true;
+
+-- GoalRepository: findByUserIdAndDeadlineBeforeAndStatusNotAndActiveTrueOrderByDeadlineAsc
+CREATE INDEX IF NOT EXISTS ix_goal_find_by_user_id_and_deadline_before
+    ON tb_goal (user_id, deadline) WHERE ativo = true;
+
+-- CategoryRepository: findByUserIdAndTypeAndActiveTrueOrderByNameAsc
+CREATE INDEX IF NOT EXISTS ix_category_find_by_user_id_and_type_and_active_true
+    ON tb_category (user_id, type, name) WHERE ativo = true;
+
+-- CategoryRepository: existsByNameAndUserIdAndActiveTrue, findByUserIdAndActiveTrueOrderByNameAsc
+CREATE INDEX IF NOT EXISTS ix_category_exists_by_name_and_user_id_and_active_true
+    ON tb_category (user_id, name) WHERE ativo = true;
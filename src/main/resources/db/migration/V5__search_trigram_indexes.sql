@@ -0,0 +1,16 @@
+-- Índices trigram das buscas por descrição/nome (ILIKE '%termo%' e similaridade).
+-- Substituem os criados pelo antigo script do spring.sql.init.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP INDEX IF EXISTS idx_expense_description_trgm;
+DROP INDEX IF EXISTS idx_income_description_trgm;
+DROP INDEX IF EXISTS idx_goal_description_trgm;
+DROP INDEX IF EXISTS idx_category_name_trgm;
+
+-- ExpenseRepository / IncomeRepository / GoalRepository: searchByDescription
+CREATE INDEX IF NOT EXISTS ix_expense_search_by_description ON tb_expense USING gin (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_income_search_by_description ON tb_income USING gin (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS ix_goal_search_by_description ON tb_goal USING gin (description gin_trgm_ops);
+
+-- CategoryRepository: searchByName
+CREATE INDEX IF NOT EXISTS ix_category_search_by_name ON tb_category USING gin (name gin_trgm_ops);
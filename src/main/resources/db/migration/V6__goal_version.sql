@@ -0,0 +1,2 @@
+-- Versão para controle otimista de concorrência nas atualizações completas de metas
+ALTER TABLE tb_goal ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
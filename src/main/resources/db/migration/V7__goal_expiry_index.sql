@@ -0,0 +1,3 @@
+-- GoalRepository: expireOverdueChunk (varredura agendada de metas vencidas de todos os usuários)
+CREATE INDEX IF NOT EXISTS ix_goal_expire_overdue_chunk
+    ON tb_goal (deadline, id) WHERE ativo = true AND status = 'EM_ANDAMENTO';
@@ -0,0 +1,4 @@
+-- ReportRepository: getFinancialTotalsByPeriod, getMonthlyTimeseries, getCategoryBreakdown
+-- Meses de um período lidos só do índice, sem depender da ordem (user_id, category_id, ...) da chave única
+CREATE INDEX IF NOT EXISTS ix_monthly_rollup_get_category_breakdown
+    ON tb_monthly_rollup (user_id, year_month) INCLUDE (category_id, type, total, count);
@@ -0,0 +1,20 @@
+-- Saldo diário acumulado por usuário: uma linha por dia com movimento, com o saldo líquido do dia
+-- (receitas - despesas) e o saldo acumulado até o fim do dia. O saldo em uma data é a linha mais
+-- recente até ela, lida pela chave primária.
+CREATE TABLE IF NOT EXISTS tb_balance_ledger (
+    user_id BIGINT         NOT NULL,
+    day     DATE           NOT NULL,
+    delta   NUMERIC(16, 2) NOT NULL,
+    balance NUMERIC(16, 2) NOT NULL,
+    CONSTRAINT pk_balance_ledger PRIMARY KEY (user_id, day),
+    CONSTRAINT fk_balance_ledger_user FOREIGN KEY (user_id) REFERENCES tb_user (id)
+);
+
+-- Backfill a partir das receitas e despesas ativas (mesma consulta de BalanceLedgerRepository.rebuild)
+INSERT INTO tb_balance_ledger (user_id, day, delta, balance)
+SELECT t.user_id, t.day, SUM(t.amount), SUM(SUM(t.amount)) OVER (PARTITION BY t.user_id ORDER BY t.day)
+FROM (SELECT i.user_id, i.date AS day, i.value AS amount FROM tb_income i WHERE i.ativo = true
+      UNION ALL
+      SELECT e.user_id, e.date, -e.value FROM tb_expense e WHERE e.ativo = true) t
+GROUP BY t.user_id, t.day
+ON CONFLICT (user_id, day) DO NOTHING;
@@ -0,0 +1,153 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+    }
+
+    @Test
+    void admittedRequestReachesTheChainAndFreesItsSlot() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 0, Duration.ofMillis(50));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/api/expenses"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(limiter.getInUse()).isZero();
+    }
+
+    @Test
+    void excessIsShedImmediatelyWith503AndRetryAfter() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 0, Duration.ofSeconds(5));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        occupy(filter);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        long start = System.nanoTime();
+        filter.doFilter(get("/api/expenses"), response, chain);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("Serviço indisponível");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get("planwise.admission.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void waiterIsShedOnceTheTimeoutExpires() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, Duration.ofMillis(100));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        occupy(filter);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long start = System.nanoTime();
+        filter.doFilter(get("/api/expenses"), response, new MockFilterChain());
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(100);
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(limiter.getWaiting()).isZero();
+    }
+
+    @Test
+    void waiterIsAdmittedWhenASlotFrees() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, Duration.ofSeconds(5));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        CompletableFuture<Void> first = occupy(filter);
+
+        MockFilterChain chain = new MockFilterChain();
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> doFilter(filter, chain));
+        while (limiter.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        finish.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(limiter.getInUse()).isZero();
+    }
+
+    @Test
+    void actuatorIsNotLimited() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 0, Duration.ofMillis(50));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        occupy(filter);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(get("/actuator/health"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void slotIsFreedWhenTheChainFails() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 0, Duration.ofMillis(50));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter, meterRegistry);
+        FilterChain failing = (request, response) -> {
+            throw new ServletException("falha no controller");
+        };
+
+        assertThatThrownBy(() -> filter.doFilter(get("/api/expenses"), new MockHttpServletResponse(), failing))
+                .isInstanceOf(ServletException.class);
+        assertThat(limiter.getInUse()).isZero();
+    }
+
+    // Mantém uma requisição em atendimento até finish
+    private CompletableFuture<Void> occupy(AdmissionControlFilter filter) throws InterruptedException {
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> occupied = CompletableFuture.runAsync(() -> doFilter(filter, blocking));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return occupied;
+    }
+
+    private static void doFilter(AdmissionControlFilter filter, FilterChain chain) {
+        try {
+            filter.doFilter(get("/api/expenses"), new MockHttpServletResponse(), chain);
+        } catch (IOException | ServletException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
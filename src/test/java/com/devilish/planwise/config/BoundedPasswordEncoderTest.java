@@ -0,0 +1,97 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void busyPoolWithoutQueueRejectsImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 0, meterRegistry);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> encoder.encode("primeira"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.matches("segunda", "hash"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.counter("planwise.password-hashing.rejected").count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("hash:primeira");
+        assertThat(encoder.matches("terceira", "hash:terceira")).isTrue();
+    }
+
+    @Test
+    void queuedTaskWaitsForFreeThread() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, meterRegistry);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> encoder.encode("primeira"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("segunda"));
+        while (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThatThrownBy(() -> encoder.encode("terceira")).isInstanceOf(ServiceUnavailableException.class);
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("hash:primeira");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:segunda");
+    }
+
+    @Test
+    void upgradeEncodingFollowsConfiguredStrength() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), 1, 0, meterRegistry);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("senha123"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("senha123"))).isFalse();
+    }
+
+    // Segura a primeira chamada até o teste liberar, ocupando a única thread do pool
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                await();
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                await();
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+
+            private void await() {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
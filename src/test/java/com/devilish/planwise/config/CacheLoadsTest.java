@@ -0,0 +1,94 @@
+package com.devilish.planwise.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheLoadsTest {
+
+    private final AsyncCache<Long, String> cache = Caffeine.newBuilder().buildAsync();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadedValueIsCached() {
+        assertThat(CacheLoads.get(cache, 1L, this::load)).isEqualTo("v1");
+        assertThat(CacheLoads.get(cache, 1L, this::load)).isEqualTo("v1");
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void concurrentCallersShareOneLoadOutsideTheMapLock() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> CacheLoads.get(cache, 1L, id -> {
+                started.countDown();
+                await(release);
+                return load(id);
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<String> second = executor.submit(() -> CacheLoads.get(cache, 1L, this::load));
+            // Outras chaves não esperam o carregamento em andamento
+            assertThat(CacheLoads.get(cache, 2L, this::load)).isEqualTo("v1");
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("v2");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("v2");
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidateDuringLoadDiscardsTheLoadedValue() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> CacheLoads.get(cache, 1L, id -> {
+            started.countDown();
+            await(release);
+            return "antigo";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        cache.synchronous().invalidate(1L);
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("antigo");
+
+        assertThat(CacheLoads.get(cache, 1L, this::load)).isEqualTo("v1");
+    }
+
+    @Test
+    void nullAndFailedLoadsAreNotCached() {
+        assertThat(CacheLoads.get(cache, 1L, id -> null)).isNull();
+        assertThatThrownBy(() -> CacheLoads.get(cache, 2L, id -> {
+            throw new IllegalStateException("falhou");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(CacheLoads.get(cache, 1L, this::load)).isEqualTo("v1");
+        assertThat(CacheLoads.get(cache, 2L, this::load)).isEqualTo("v2");
+    }
+
+    private String load(Long id) {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.devilish.planwise.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void closingConnectionReleasesPermit() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, 10, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(dataSource.getInUse()).isEqualTo(2);
+
+        first.close();
+        assertThat(dataSource.getInUse()).isEqualTo(1);
+        second.close();
+        assertThat(dataSource.getInUse()).isZero();
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void closingTwiceReleasesOnlyOnePermit() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 2, 10, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getInUse()).isEqualTo(1);
+    }
+
+    @Test
+    void permitIsReleasedEvenWhenCloseFails() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        doThrow(new SQLException("falha ao devolver")).when(connection).close();
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10, Duration.ofMillis(50));
+
+        Connection guarded = dataSource.getConnection();
+
+        assertThatThrownBy(guarded::close).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getInUse()).isZero();
+    }
+
+    @Test
+    void failedAcquisitionFromPoolReleasesPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool esgotado"));
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10, Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool esgotado");
+
+        assertThat(dataSource.getInUse()).isZero();
+    }
+
+    @Test
+    void waitingBeyondTimeoutFails() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10, Duration.ofMillis(100));
+        dataSource.getConnection();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("espera acima de 100 ms");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(100);
+        assertThat(dataSource.getInUse()).isEqualTo(1);
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    void fullQueueFailsWithoutWaiting() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 1, Duration.ofSeconds(5));
+        Connection held = dataSource.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("fila de 1 cheia");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+        held.close();
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(dataSource.getWaiting()).isZero();
+    }
+
+    @Test
+    void waiterGetsConnectionOnceAnotherIsClosed() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target, 1, 10, Duration.ofSeconds(5));
+        Connection held = dataSource.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThat(waiter).isNotDone();
+
+        held.close();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(dataSource.getInUse()).isEqualTo(1);
+        assertThat(dataSource.getWaiting()).isZero();
+    }
+}
@@ -0,0 +1,107 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.services.user.UserDataVersions;
+import com.devilish.planwise.services.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataVersionEtagInterceptorTest {
+
+    @Mock
+    private UserDataVersions dataVersions;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private DataVersionEtagInterceptor interceptor;
+
+    private final Object handler = new Object();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userService.getCurrentUserId()).thenReturn(1L);
+    }
+
+    @Test
+    void firstRequestGetsEtagAndReachesController() {
+        when(dataVersions.current(1L)).thenReturn("e.3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(get(null), response, handler);
+
+        assertThat(proceed).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag("e.3"));
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, no-cache");
+    }
+
+    @Test
+    void matchingTagAnswersNotModifiedWithoutReachingController() {
+        when(dataVersions.current(1L)).thenReturn("e.3");
+
+        for (String ifNoneMatch : new String[]{etag("e.3"), etag("e.3").substring(2), "\"outro\", " + etag("e.3"), "*"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            boolean proceed = interceptor.preHandle(get(ifNoneMatch), response, handler);
+
+            assertThat(proceed).as(ifNoneMatch).isFalse();
+            assertThat(response.getStatus()).as(ifNoneMatch).isEqualTo(304);
+            assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag("e.3"));
+        }
+    }
+
+    @Test
+    void changedVersionIssuesNewTagAndReachesController() {
+        when(dataVersions.current(1L)).thenReturn("e.3", "e.4");
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), first, handler);
+        String cached = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(get(cached), second, handler);
+
+        assertThat(proceed).isTrue();
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag("e.4")).isNotEqualTo(cached);
+    }
+
+    @Test
+    void writesAreNotTagged() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/expenses");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, handler);
+
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+        verifyNoInteractions(dataVersions, userService);
+    }
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reports/summary");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    private static String etag(String version) {
+        return "W/\"" + version + "-" + LocalDate.now().toEpochDay() + "\"";
+    }
+}
@@ -0,0 +1,116 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cada pool aplica o seu statement_timeout ao abrir conexões: o valor lido mostra de qual pool ela veio
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DataSourceConfig.class, MonthlyRollupService.class, PoolRoutingTest.Beans.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class PoolRoutingTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ReportingQueries reportingQueries(JdbcTemplate jdbcTemplate) {
+            return new ReportingQueries(jdbcTemplate);
+        }
+    }
+
+    static class ReportingQueries {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ReportingQueries(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @ReportingWorkload
+        public String statementTimeout() {
+            return jdbcTemplate.queryForObject("SELECT current_setting('statement_timeout')", String.class);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportingQueries reportingQueries;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private List<DataSource> dataSources;
+
+    @Test
+    void ordinaryWorkUsesOltpPool() {
+        assertThat(jdbcTemplate.queryForObject("SELECT current_setting('statement_timeout')", String.class)).isEqualTo("5s");
+    }
+
+    @Test
+    void annotatedWorkUsesReportingPool() {
+        assertThat(reportingQueries.statementTimeout()).isEqualTo("2min");
+    }
+
+    @Test
+    void migrationsRunWithoutStatementTimeout() {
+        DataSource migrations = flyway.getConfiguration().getDataSource();
+        assertThat(new JdbcTemplate(migrations).queryForObject("SELECT current_setting('statement_timeout')", String.class))
+                .isEqualTo("0");
+        // Não é bean: health check e demais consumidores de DataSource só enxergam os pools
+        assertThat(dataSources).doesNotContain(migrations);
+    }
+
+    @Test
+    void rollupRebuildUsesReportingPool() {
+        double reporting = meterRegistry.get("planwise.datasource.routed").tag("target", "reporting").counter().count();
+        double oltp = meterRegistry.get("planwise.datasource.routed").tag("target", "oltp").counter().count();
+
+        monthlyRollupService.rebuild();
+
+        assertThat(meterRegistry.get("planwise.datasource.routed").tag("target", "reporting").counter().count())
+                .isEqualTo(reporting + 1);
+        assertThat(meterRegistry.get("planwise.datasource.routed").tag("target", "oltp").counter().count())
+                .isEqualTo(oltp);
+    }
+}
@@ -0,0 +1,137 @@
+package com.devilish.planwise.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    // 5 fichas por 5s: uma nova a cada segundo
+    private static final RateLimiter.Limit LIMIT = new RateLimiter.Limit(5, Duration.ofSeconds(5));
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void burstUpToCapacityThenOneTokenPerInterval() {
+        RateLimiter limiter = new RateLimiter(100, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isZero();
+        }
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isEqualTo(SECOND);
+
+        now.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isEqualTo(SECOND / 2);
+
+        now.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isZero();
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        RateLimiter limiter = new RateLimiter(100, now::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("ip:a", "overflow", LIMIT);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isPositive();
+        }
+
+        now.addAndGet(SECOND);
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isZero();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToCapacity() {
+        RateLimiter limiter = new RateLimiter(100, now::get);
+        limiter.tryAcquire("ip:a", "overflow", LIMIT);
+
+        now.addAndGet(60 * SECOND);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isZero();
+        }
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        RateLimiter limiter = new RateLimiter(100, now::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("ip:a", "overflow", LIMIT);
+        }
+
+        assertThat(limiter.tryAcquire("ip:a", "overflow", LIMIT)).isPositive();
+        assertThat(limiter.tryAcquire("ip:b", "overflow", LIMIT)).isZero();
+    }
+
+    @Test
+    void newKeysShareOverflowBucketWhileActiveKeysFillTheMap() {
+        RateLimiter limiter = new RateLimiter(2, now::get);
+        RateLimiter.Limit single = new RateLimiter.Limit(1, Duration.ofSeconds(5));
+        assertThat(limiter.tryAcquire("ip:a", "overflow", single)).isZero();
+        assertThat(limiter.tryAcquire("ip:b", "overflow", single)).isZero();
+
+        assertThat(limiter.tryAcquire("ip:c", "overflow", single)).isZero();
+        assertThat(limiter.tryAcquire("ip:d", "overflow", single)).isPositive();
+
+        // a e b continuam com os próprios baldes; c e d não ganharam entrada
+        assertThat(limiter.size()).isEqualTo(3);
+        assertThat(limiter.tryAcquire("ip:a", "overflow", single)).isPositive();
+    }
+
+    @Test
+    void idleKeysAreEvictedToMakeRoomForNewOnes() {
+        RateLimiter limiter = new RateLimiter(2, now::get);
+        limiter.tryAcquire("ip:a", "overflow", LIMIT);
+        limiter.tryAcquire("ip:b", "overflow", LIMIT);
+
+        now.addAndGet(2 * SECOND);
+
+        assertThat(limiter.tryAcquire("ip:c", "overflow", LIMIT)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionOnFullMapRunsAtMostOncePerSecond() {
+        RateLimiter limiter = new RateLimiter(1, now::get);
+        limiter.tryAcquire("ip:a", "overflow", LIMIT);
+        // Primeira varredura: a ainda está ativo, c vai para o balde comum
+        limiter.tryAcquire("ip:c", "overflow", LIMIT);
+        assertThat(limiter.size()).isEqualTo(2);
+
+        now.addAndGet(SECOND / 2);
+        limiter.tryAcquire("ip:d", "overflow", LIMIT);
+        // Dentro do intervalo mínimo: a ociosa não é removida
+        assertThat(limiter.size()).isEqualTo(2);
+
+        now.addAndGet(5 * SECOND);
+        limiter.tryAcquire("ip:e", "overflow", LIMIT);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictIdleKeepsBucketsThatAreStillRefilling() {
+        RateLimiter limiter = new RateLimiter(100, now::get);
+        limiter.tryAcquire("ip:a", "overflow", LIMIT);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("ip:b", "overflow", LIMIT);
+        }
+
+        now.addAndGet(2 * SECOND);
+
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        // b só recuperou 2 das 5 fichas: o estado foi preservado
+        assertThat(limiter.tryAcquire("ip:b", "overflow", LIMIT)).isZero();
+        assertThat(limiter.tryAcquire("ip:b", "overflow", LIMIT)).isZero();
+        assertThat(limiter.tryAcquire("ip:b", "overflow", LIMIT)).isPositive();
+    }
+}
@@ -0,0 +1,141 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingFilterTest {
+
+    private final AtomicLong now = new AtomicLong(Duration.ofHours(1).toNanos());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void routeIsChosenByExactPath() {
+        assertThat(RateLimitingFilter.routeOf("/api/auth/login")).isEqualTo(RateLimitingFilter.Route.LOGIN);
+        assertThat(RateLimitingFilter.routeOf("/api/auth/register")).isEqualTo(RateLimitingFilter.Route.REGISTER);
+        assertThat(RateLimitingFilter.routeOf("/api/auth/refresh")).isEqualTo(RateLimitingFilter.Route.GENERAL);
+        assertThat(RateLimitingFilter.routeOf("/api/auth/login/extra")).isEqualTo(RateLimitingFilter.Route.GENERAL);
+        assertThat(RateLimitingFilter.routeOf("/api/expenses")).isEqualTo(RateLimitingFilter.Route.GENERAL);
+    }
+
+    @Test
+    void eachRouteHasItsOwnBucket() throws Exception {
+        RateLimitingFilter filter = filter(false);
+
+        assertThat(status(filter, request("/api/auth/login", "10.0.0.1"))).isEqualTo(200);
+        assertThat(status(filter, request("/api/auth/login", "10.0.0.1"))).isEqualTo(429);
+
+        assertThat(status(filter, request("/api/auth/register", "10.0.0.1"))).isEqualTo(200);
+        assertThat(status(filter, request("/api/expenses", "10.0.0.1"))).isEqualTo(200);
+        assertThat(status(filter, request("/api/expenses", "10.0.0.1"))).isEqualTo(200);
+        assertThat(status(filter, request("/api/expenses", "10.0.0.1"))).isEqualTo(429);
+    }
+
+    @Test
+    void rejectionAnswers429WithRetryAfterWithoutReachingTheChain() throws Exception {
+        RateLimitingFilter filter = filter(false);
+        filter.doFilter(request("/api/auth/login", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/api/auth/login", "10.0.0.1"), response, chain);
+
+        // Uma ficha por minuto no login: a próxima chega em 60 s
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+        assertThat(response.getContentType()).startsWith("application/json");
+        assertThat(response.getContentAsString()).contains("Rate limit exceeded");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get("planwise.rate-limit.rejected").tag("route", "login").counter().count())
+                .isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        MockHttpServletResponse later = new MockHttpServletResponse();
+        filter.doFilter(request("/api/auth/login", "10.0.0.1"), later, new MockFilterChain());
+        assertThat(later.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(status(filter, request("/api/auth/login", "10.0.0.1"))).isEqualTo(200);
+    }
+
+    @Test
+    void forwardedHeadersAreIgnoredWhenNotTrusted() throws Exception {
+        RateLimitingFilter filter = filter(false);
+
+        // O cliente troca o X-Forwarded-For a cada tentativa, mas continua no balde do próprio endereço
+        assertThat(status(filter, forwarded(request("/api/auth/login", "203.0.113.7"), "198.51.100.1"))).isEqualTo(200);
+        assertThat(status(filter, forwarded(request("/api/auth/login", "203.0.113.7"), "198.51.100.2"))).isEqualTo(429);
+        assertThat(status(filter, realIp(request("/api/auth/login", "203.0.113.7"), "198.51.100.3"))).isEqualTo(429);
+
+        assertThat(status(filter, request("/api/auth/login", "203.0.113.8"))).isEqualTo(200);
+    }
+
+    @Test
+    void trustedForwardedHeaderUsesTheAddressAppendedByTheProxy() throws Exception {
+        RateLimitingFilter filter = filter(true);
+
+        // Mesmo balanceador (10.0.0.1), clientes diferentes
+        assertThat(status(filter, forwarded(request("/api/auth/login", "10.0.0.1"), "198.51.100.1"))).isEqualTo(200);
+        assertThat(status(filter, forwarded(request("/api/auth/login", "10.0.0.1"), "198.51.100.2"))).isEqualTo(200);
+
+        // Valor forjado à esquerda não muda o balde: vale o último, acrescentado pelo proxy
+        assertThat(status(filter, forwarded(request("/api/auth/login", "10.0.0.1"), "192.0.2.99, 198.51.100.1")))
+                .isEqualTo(429);
+    }
+
+    @Test
+    void trustedRealIpIsUsedWithoutForwardedFor() throws Exception {
+        RateLimitingFilter filter = filter(true);
+
+        assertThat(status(filter, realIp(request("/api/auth/login", "10.0.0.1"), "198.51.100.1"))).isEqualTo(200);
+        assertThat(status(filter, realIp(request("/api/auth/login", "10.0.0.1"), "198.51.100.2"))).isEqualTo(200);
+        assertThat(status(filter, realIp(request("/api/auth/login", "10.0.0.1"), "198.51.100.1"))).isEqualTo(429);
+    }
+
+    @Test
+    void disabledFilterLetsEverythingThrough() throws Exception {
+        RateLimitingFilter filter = new RateLimitingFilter(new RateLimiter(100, now::get), meterRegistry,
+                false, false, Duration.ofMinutes(1), 1, 1, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(status(filter, request("/api/auth/login", "10.0.0.1"))).isEqualTo(200);
+        }
+    }
+
+    // Login e cadastro: 1 por minuto; demais rotas: 2 por minuto
+    private RateLimitingFilter filter(boolean trustForwardedHeaders) {
+        return new RateLimitingFilter(new RateLimiter(100, now::get), meterRegistry,
+                true, trustForwardedHeaders, Duration.ofMinutes(1), 1, 1, 2);
+    }
+
+    private static int status(RateLimitingFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static MockHttpServletRequest forwarded(MockHttpServletRequest request, String xForwardedFor) {
+        request.addHeader("X-Forwarded-For", xForwardedFor);
+        return request;
+    }
+
+    private static MockHttpServletRequest realIp(MockHttpServletRequest request, String xRealIp) {
+        request.addHeader("X-Real-IP", xRealIp);
+        return request;
+    }
+}
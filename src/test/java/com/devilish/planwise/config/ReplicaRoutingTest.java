@@ -0,0 +1,213 @@
+package com.devilish.planwise.config;
+
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.user.UserDataVersionRepository;
+import com.devilish.planwise.services.user.UserDataVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dois bancos PostgreSQL independentes fazem o papel de primário e réplica;
+// current_database() mostra para onde cada transação foi roteada. Como nada é replicado entre eles,
+// a "réplica" também serve de réplica atrasada: nunca recebe as gravações feitas no primário.
+@DataJpaTest(properties = {
+        "planwise.datasource.replica.enabled=true",
+        "planwise.datasource.replica.hikari.connection-timeout=2000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DataSourceConfig.class, ReplicaRoutingConfig.class, UserDataVersions.class, DataVersionListener.class,
+        ReplicaRoutingTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Testcontainers
+class ReplicaRoutingTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15").withDatabaseName("planwise_primary");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15").withDatabaseName("planwise_replica");
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("planwise.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("planwise.datasource.replica.username", replica::getUsername);
+        registry.add("planwise.datasource.replica.password", replica::getPassword);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReplicaHealthMonitor replicaHealthMonitor;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    private UserDataVersions dataVersions;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(replicaHealthMonitor.isHealthy()).isTrue();
+        assertThat(currentDatabase(readOnly)).isEqualTo("planwise_replica");
+        assertThat(currentDatabase(readWrite)).isEqualTo("planwise_primary");
+    }
+
+    @Test
+    @Order(2)
+    void userWhoJustWroteReadsFromPrimary() {
+        eventPublisher.publishEvent(new UserDataChangedEvent(42L, UserDataChangedEvent.Source.EXPENSE));
+
+        authenticate(42L);
+        assertThat(currentDatabase(readOnly)).isEqualTo("planwise_primary");
+
+        authenticate(43L);
+        assertThat(currentDatabase(readOnly)).isEqualTo("planwise_replica");
+    }
+
+    @Test
+    @Order(3)
+    void reportAfterAWriteIsNotReadFromTheLaggingReplica() {
+        // Mesmo total nos dois bancos; a gravação seguinte só chega ao primário
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDataSource);
+        readWrite.executeWithoutResult(status -> entityManager.createNativeQuery(
+                "CREATE TABLE lag_probe (user_id BIGINT PRIMARY KEY, total INT)").executeUpdate());
+        replicaJdbc.execute("CREATE TABLE lag_probe (user_id BIGINT PRIMARY KEY, total INT)");
+        for (long userId : new long[]{44L, 45L}) {
+            readWrite.executeWithoutResult(status -> entityManager.createNativeQuery(
+                    "INSERT INTO lag_probe VALUES (" + userId + ", 100)").executeUpdate());
+            replicaJdbc.update("INSERT INTO lag_probe VALUES (?, 100)", userId);
+        }
+
+        authenticate(44L);
+        String before = dataVersions.current(44L);
+        readWrite.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("UPDATE lag_probe SET total = 150 WHERE user_id = 44").executeUpdate();
+            eventPublisher.publishEvent(new UserDataChangedEvent(44L, UserDataChangedEvent.Source.EXPENSE));
+        });
+
+        // Versão nova (nova chave no ReportCache, novo ETag) lida do primário, sem configurar read-your-writes
+        assertThat(dataVersions.current(44L)).isNotEqualTo(before);
+        assertThat(readYourWritesTracker.getWindow()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(total(44L)).isEqualTo(150);
+
+        // Quem não gravou continua lendo a réplica, atrasada
+        authenticate(45L);
+        assertThat(total(45L)).isEqualTo(100);
+    }
+
+    @Test
+    @Order(4)
+    void changeMadeOnAnotherNodeAlsoReadsFromPrimary() throws InterruptedException {
+        authenticate(46L);
+        assertThat(currentDatabase(readOnly)).isEqualTo("planwise_replica");
+
+        // O NOTIFY que outro nó emitiria ao gravar dados do usuário 46
+        readWrite.executeWithoutResult(status -> entityManager.createNativeQuery(
+                "SELECT 1 FROM pg_notify('" + UserDataVersionRepository.CHANNEL + "', '46')").getSingleResult());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!currentDatabase(readOnly).equals("planwise_primary")) {
+            assertThat(System.nanoTime()).as("notificação não recebida").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @Order(5)
+    void unavailableReplicaFallsBackToPrimary() {
+        replica.stop();
+        replicaHealthMonitor.check();
+
+        assertThat(replicaHealthMonitor.isHealthy()).isFalse();
+        assertThat(currentDatabase(readOnly)).isEqualTo("planwise_primary");
+    }
+
+    private String currentDatabase(TransactionTemplate template) {
+        return template.execute(status ->
+                (String) entityManager.createNativeQuery("SELECT current_database()").getSingleResult());
+    }
+
+    private Integer total(Long userId) {
+        return readOnly.execute(status -> ((Number) entityManager
+                .createNativeQuery("SELECT total FROM lag_probe WHERE user_id = " + userId)
+                .getSingleResult()).intValue());
+    }
+
+    private void authenticate(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "user" + userId + "@planwise.com", User.Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
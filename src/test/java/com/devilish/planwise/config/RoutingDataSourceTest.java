@@ -0,0 +1,83 @@
+package com.devilish.planwise.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+// Conexões com credenciais explícitas seguem as mesmas regras de roteamento
+@ExtendWith(MockitoExtension.class)
+class RoutingDataSourceTest {
+
+    @Mock
+    private DataSource oltp;
+
+    @Mock
+    private DataSource reporting;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaHealthMonitor healthMonitor;
+
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Mock
+    private Connection connection;
+
+    private RoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new RoutingDataSource(oltp, reporting, replica, healthMonitor, readYourWrites,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void clearReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void credentialsReachTheOltpPool() throws SQLException {
+        when(oltp.getConnection("app", "secret")).thenReturn(connection);
+
+        assertThat(routingDataSource.getConnection("app", "secret")).isSameAs(connection);
+        verifyNoInteractions(replica, reporting);
+    }
+
+    @Test
+    void readOnlyCredentialsReachTheReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(healthMonitor.isHealthy()).thenReturn(true);
+        when(replica.getConnection("app", "secret")).thenReturn(connection);
+
+        assertThat(routingDataSource.getConnection("app", "secret")).isSameAs(connection);
+        verifyNoInteractions(oltp);
+    }
+
+    @Test
+    void failedReplicaFallsBackToThePrimaryWithTheSameCredentials() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(healthMonitor.isHealthy()).thenReturn(true);
+        SQLException down = new SQLException("réplica fora do ar");
+        when(replica.getConnection("app", "secret")).thenThrow(down);
+        when(oltp.getConnection("app", "secret")).thenReturn(connection);
+
+        assertThat(routingDataSource.getConnection("app", "secret")).isSameAs(connection);
+        verify(healthMonitor).markDown(down);
+    }
+}
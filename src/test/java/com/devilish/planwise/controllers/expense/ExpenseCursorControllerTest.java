@@ -0,0 +1,82 @@
+package com.devilish.planwise.controllers.expense;
+
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.PageCursor;
+import com.devilish.planwise.dto.expense.ExpenseResponse;
+import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.services.expense.ExpenseService;
+import com.devilish.planwise.services.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+// Cursor vindo do cliente: qualquer token que não decodifique para (data, id) é um 400, sem consultar o banco
+@ExtendWith(MockitoExtension.class)
+class ExpenseCursorControllerTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ExpenseService expenseService;
+
+    private ExpenseController controller;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.getCurrentUserId()).thenReturn(1L);
+        controller = new ExpenseController(expenseService, userService, expenseRepository, null);
+    }
+
+    @Test
+    void malformedCursorAnswersBadRequest() {
+        List<String> cursors = List.of(
+                "!!!",
+                "A",
+                raw("semseparador"),
+                raw("2024-03-10|abc"),
+                raw("não é data|5"),
+                raw("2024-03-10T12:00:00|5"));
+
+        for (String cursor : cursors) {
+            ResponseEntity<CursorPage<ExpenseResponse>> response = controller.getAllExpensesByCursor(cursor, 20);
+
+            assertThat(response.getStatusCode().value()).as(cursor).isEqualTo(400);
+        }
+        verify(expenseRepository, never()).findKeysetPageAfter(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void validCursorContinuesAfterTheDecodedPosition() {
+        when(expenseRepository.findKeysetPageAfter(1L, LocalDate.of(2024, 3, 10), 42L, Limit.of(21)))
+                .thenReturn(List.of());
+
+        ResponseEntity<CursorPage<ExpenseResponse>> response =
+                controller.getAllExpensesByCursor(new PageCursor("2024-03-10", 42L).encode(), 20);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody().isHasNext()).isFalse();
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
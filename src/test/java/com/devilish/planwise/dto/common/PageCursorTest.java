@@ -0,0 +1,93 @@
+package com.devilish.planwise.dto.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void tokenRoundTripsKeyAndId() {
+        PageCursor date = PageCursor.decode(new PageCursor("2024-03-10", 42L).encode());
+        assertThat(date).isEqualTo(new PageCursor("2024-03-10", 42L));
+        assertThat(date.dateKey()).isEqualTo(LocalDate.of(2024, 3, 10));
+
+        PageCursor dateTime = PageCursor.decode(new PageCursor("2024-03-10T12:00:00.123456", Long.MAX_VALUE).encode());
+        assertThat(dateTime.dateTimeKey()).isEqualTo(LocalDateTime.of(2024, 3, 10, 12, 0, 0, 123_456_000));
+        assertThat(dateTime.id()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new PageCursor("çã?&/+=|~", 7L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void separatorInsideTheKeyIsKept() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("a|b||c", 9L).encode());
+
+        assertThat(cursor.key()).isEqualTo("a|b||c");
+        assertThat(cursor.id()).isEqualTo(9L);
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        List<String> tokens = List.of(
+                "",
+                "!!!",
+                "abc$def",
+                "a+b/c==",
+                "A",
+                raw("semseparador"),
+                raw("|5"),
+                raw("2024-03-10|"),
+                raw("2024-03-10|abc"),
+                raw("2024-03-10|99999999999999999999"),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{(byte) 0xff, (byte) 0xfe, 0x00, 0x7c}));
+
+        for (String token : tokens) {
+            assertThatThrownBy(() -> PageCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Cursor inválido");
+        }
+    }
+
+    @Test
+    void keyOfTheWrongTypeIsRejected() {
+        PageCursor cursor = PageCursor.decode(raw("não é data|5"));
+
+        assertThatThrownBy(cursor::dateKey).isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor inválido");
+        assertThatThrownBy(cursor::dateTimeKey).isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor inválido");
+        assertThatThrownBy(PageCursor.decode(raw("2024-03-10|5"))::dateTimeKey)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nextCursorPointsAtTheLastRowOfThePage() {
+        List<Long> rows = List.of(10L, 9L, 8L);
+
+        CursorPage<Long> page = CursorPage.of(rows, 2, id -> new PageCursor("2024-03-10", id), Function.identity());
+        assertThat(page.getContent()).containsExactly(10L, 9L);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(PageCursor.decode(page.getNextCursor()).id()).isEqualTo(9L);
+
+        CursorPage<Long> last = CursorPage.of(rows.subList(2, 3), 2, id -> new PageCursor("2024-03-10", id), Function.identity());
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
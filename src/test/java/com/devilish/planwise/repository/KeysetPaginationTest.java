@@ -0,0 +1,140 @@
+package com.devilish.planwise.repository;
+
+import com.devilish.planwise.dto.common.CursorPage;
+import com.devilish.planwise.dto.common.PageCursor;
+import com.devilish.planwise.dto.expense.ExpenseResponse;
+import com.devilish.planwise.dto.goal.GoalResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.Goal;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.repository.goal.GoalRepository;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Percorre todas as páginas por cursor, como os serviços (token codificado e decodificado a cada página),
+// com várias linhas na mesma data e no mesmo createdAt: o id desempata e nenhuma linha se repete ou fica de fora
+class KeysetPaginationTest extends PostgresRepositoryTest {
+
+    private static final int PAGE_SIZE = 4;
+    private static final LocalDate SAME_DATE = LocalDate.of(2024, 3, 10);
+    private static final LocalDateTime SAME_CREATED_AT = LocalDateTime.of(2024, 3, 10, 12, 0, 0, 123_456_000);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(TestFixtures.user("Cursor"));
+        category = entityManager.persist(TestFixtures.category(user, "Mercado", Category.CategoryType.DESPESA));
+
+        // Outro usuário na mesma data não pode aparecer nas páginas
+        User other = entityManager.persist(TestFixtures.user("Outro"));
+        Category otherCategory = entityManager.persist(TestFixtures.category(other, "Mercado", Category.CategoryType.DESPESA));
+        entityManager.persist(expense(other, otherCategory, SAME_DATE, true));
+    }
+
+    @Test
+    void expensePagesCoverEveryRowOnceInOrder() {
+        List<Expense> expenses = new ArrayList<>();
+        expenses.add(entityManager.persist(expense(user, category, SAME_DATE.plusDays(1), true)));
+        for (int i = 0; i < 9; i++) {
+            expenses.add(entityManager.persist(expense(user, category, SAME_DATE, true)));
+        }
+        expenses.add(entityManager.persist(expense(user, category, SAME_DATE, false)));
+        for (int i = 0; i < 3; i++) {
+            expenses.add(entityManager.persist(expense(user, category, SAME_DATE.minusDays(1), true)));
+        }
+        entityManager.flush();
+
+        List<Long> expected = expenses.stream()
+                .filter(Expense::getActive)
+                .sorted(Comparator.comparing(Expense::getDate).thenComparing(Expense::getId).reversed())
+                .map(Expense::getId)
+                .toList();
+
+        List<Long> walked = walk(
+                () -> expenseRepository.findFirstKeysetPage(user.getId(), Limit.of(PAGE_SIZE + 1)),
+                cursor -> expenseRepository.findKeysetPageAfter(user.getId(), cursor.dateKey(), cursor.id(),
+                        Limit.of(PAGE_SIZE + 1)),
+                e -> new PageCursor(e.getDate().toString(), e.getId()),
+                ExpenseResponse::getId);
+
+        assertThat(walked).hasSize(13).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void goalPagesCoverEveryRowOnceInOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Goal goal = TestFixtures.goal(user, "Meta " + i, "1000.00", SAME_DATE.plusYears(1));
+            goal.setCreatedAt(SAME_CREATED_AT);
+            ids.add(entityManager.persist(goal).getId());
+        }
+        Goal older = TestFixtures.goal(user, "Meta antiga", "1000.00", SAME_DATE.plusYears(1));
+        older.setCreatedAt(SAME_CREATED_AT.minusNanos(1_000));
+        Long olderId = entityManager.persist(older).getId();
+        entityManager.flush();
+
+        List<Long> expected = new ArrayList<>(ids.stream().sorted(Comparator.reverseOrder()).toList());
+        expected.add(olderId);
+
+        List<Long> walked = walk(
+                () -> goalRepository.findFirstKeysetPage(user.getId(), Limit.of(PAGE_SIZE + 1)),
+                cursor -> goalRepository.findKeysetPageAfter(user.getId(), cursor.dateTimeKey(), cursor.id(),
+                        Limit.of(PAGE_SIZE + 1)),
+                g -> new PageCursor(g.getCreatedAt().toString(), g.getId()),
+                GoalResponse::getId);
+
+        assertThat(walked).hasSize(11).doesNotHaveDuplicates().containsExactlyElementsOf(expected);
+    }
+
+    private <T> List<Long> walk(Supplier<List<T>> first,
+                                Function<PageCursor, List<T>> after,
+                                Function<T, PageCursor> cursorOf,
+                                Function<T, Long> idOf) {
+        List<Long> ids = new ArrayList<>();
+        CursorPage<T> page = CursorPage.of(first.get(), PAGE_SIZE, cursorOf, Function.identity());
+        page.getContent().forEach(row -> ids.add(idOf.apply(row)));
+        int pages = 1;
+        while (page.isHasNext()) {
+            assertThat(pages++).as("páginas").isLessThan(10);
+            page = CursorPage.of(after.apply(PageCursor.decode(page.getNextCursor())), PAGE_SIZE, cursorOf,
+                    Function.identity());
+            page.getContent().forEach(row -> ids.add(idOf.apply(row)));
+        }
+        return ids;
+    }
+
+    private static Expense expense(User user, Category category, LocalDate date, boolean active) {
+        Expense expense = TestFixtures.expense(user, category, "10.00", date);
+        expense.setCreatedAt(SAME_CREATED_AT);
+        expense.setActive(active);
+        return expense;
+    }
+}
@@ -0,0 +1,183 @@
+package com.devilish.planwise.repository;
+
+import com.devilish.planwise.dto.expense.ExpenseResponse;
+import com.devilish.planwise.dto.income.IncomeResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.Income;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.repository.income.IncomeRepository;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Conta os comandos SQL de cada leitura usada pelos endpoints de receitas e despesas:
+// o número não pode crescer com a quantidade de linhas (sem N+1 na categoria)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReadPathStatementCountTest extends PostgresRepositoryTest {
+
+    private static final int ROWS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long expenseCategoryId;
+    private List<Long> expenseIds;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Estatísticas"));
+        userId = user.getId();
+
+        List<Category> expenseCategories = new ArrayList<>();
+        List<Category> incomeCategories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expenseCategories.add(category(user, "Despesa " + i, Category.CategoryType.DESPESA));
+            incomeCategories.add(category(user, "Receita " + i, Category.CategoryType.RECEITA));
+        }
+        expenseCategoryId = expenseCategories.get(0).getId();
+
+        expenseIds = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            Expense expense = TestFixtures.expense(user, expenseCategories.get(i % expenseCategories.size()), "10", start.plusDays(i));
+            expense.setDescription("Despesa " + i);
+            entityManager.persist(expense);
+            expenseIds.add(expense.getId());
+
+            Income income = TestFixtures.income(user, incomeCategories.get(i % incomeCategories.size()), "10", start.plusDays(i));
+            income.setDescription("Receita " + i);
+            entityManager.persist(income);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void expensePageUsesContentAndCountStatements() {
+        Page<ExpenseResponse> page = expenseRepository.findByUserIdAndActiveTrueOrderByDateDesc(userId, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(10).allSatisfy(e -> assertThat(e.getCategory().getName()).isNotNull());
+        assertThat(page.getTotalElements()).isEqualTo(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void expenseExportIsSingleStatement() {
+        try (Stream<ExpenseResponse> expenses = expenseRepository.streamByUserId(userId)) {
+            assertThat(expenses.map(e -> e.getCategory().getName()).count()).isEqualTo(ROWS);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expenseListsAreSingleStatement() {
+        assertThat(expenseRepository.findByUserIdAndCategoryIdAndActiveTrueOrderByDateDesc(userId, expenseCategoryId))
+                .hasSize(ROWS / 3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(expenseRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(
+                userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(expenseRepository.findFirstKeysetPage(userId, Limit.of(11))).hasSize(11);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(expenseRepository.findResponseById(expenseIds.get(0), userId)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expenseTotalDoesNotLoadCategories() {
+        assertThat(expenseRepository.getTotalExpenseByUser(userId)).isEqualByComparingTo("300");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void expenseEntityLeavesCategoryUnloaded() {
+        Expense expense = expenseRepository.findByIdAndUserIdAndActiveTrue(expenseIds.get(0), userId).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(expense.getCategory())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void categoriesOfLoadedEntitiesAreBatchFetched() {
+        List<Expense> expenses = expenseRepository.findAllById(expenseIds);
+        expenses.forEach(expense -> expense.getCategory().getName());
+
+        // Uma consulta para as despesas e uma única consulta em lote para as três categorias
+        assertThat(expenses).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void incomePageUsesContentAndCountStatements() {
+        Page<IncomeResponse> page = incomeRepository.findByUserIdAndActiveTrueOrderByDateDesc(userId, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(10).allSatisfy(i -> assertThat(i.getCategory().getName()).isNotNull());
+        assertThat(page.getTotalElements()).isEqualTo(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void incomeExportIsSingleStatement() {
+        try (Stream<IncomeResponse> incomes = incomeRepository.streamByUserId(userId)) {
+            assertThat(incomes.map(i -> i.getCategory().getName()).count()).isEqualTo(ROWS);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void incomeListsAreSingleStatement() {
+        assertThat(incomeRepository.findByUserIdAndDateBetweenAndActiveTrueOrderByDateDesc(
+                userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(incomeRepository.findFirstKeysetPage(userId, Limit.of(11))).hasSize(11);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Category category(User user, String name, Category.CategoryType type) {
+        return entityManager.persist(TestFixtures.category(user, name, type));
+    }
+}
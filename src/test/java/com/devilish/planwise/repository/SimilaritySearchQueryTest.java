@@ -0,0 +1,128 @@
+package com.devilish.planwise.repository;
+
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.dto.expense.ExpenseResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.category.CategoryRepository;
+import com.devilish.planwise.repository.expense.ExpenseRepository;
+import com.devilish.planwise.services.search.SearchQuery;
+import com.devilish.planwise.services.search.SearchSettings;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Busca por similaridade (pg_trgm): uma única consulta já projetada no DTO e ordenada pela relevância
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SimilaritySearchQueryTest extends PostgresRepositoryTest {
+
+    private final SearchSettings searchSettings = new SearchSettings(200, 50);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Busca"));
+        userId = user.getId();
+        Category market = entityManager.persist(TestFixtures.category(user, "Mercado", Category.CategoryType.DESPESA));
+        entityManager.persist(TestFixtures.category(user, "Supermercado", Category.CategoryType.DESPESA));
+        entityManager.persist(TestFixtures.category(user, "Lazer", Category.CategoryType.DESPESA));
+
+        expense(user, market, "Compras no mercado central", LocalDate.of(2024, 1, 5));
+        expense(user, market, "Mercado", LocalDate.of(2024, 1, 1));
+        expense(user, market, "Mercado", LocalDate.of(2024, 1, 3));
+        expense(user, market, "Desconto de 10% no mercado", LocalDate.of(2024, 1, 4));
+        expense(user, market, "Cinema", LocalDate.of(2024, 1, 6));
+        Expense removed = TestFixtures.expense(user, market, "10.00", LocalDate.of(2024, 1, 7));
+        removed.setDescription("Mercado");
+        removed.setActive(false);
+        entityManager.persist(removed);
+
+        User other = entityManager.persist(TestFixtures.user("Outro"));
+        Category otherMarket = entityManager.persist(TestFixtures.category(other, "Mercado", Category.CategoryType.DESPESA));
+        expense(other, otherMarket, "Mercado", LocalDate.of(2024, 1, 2));
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void expensesComeRankedWithCategoryInOneStatement() {
+        List<ExpenseResponse> results = search("mercado", 0, 10);
+
+        // Descrição idêntica primeiro (mais recente antes), depois as que só contêm o termo
+        assertThat(results).extracting(ExpenseResponse::getDescription).startsWith("Mercado", "Mercado");
+        assertThat(results.get(0).getDate()).isEqualTo(LocalDate.of(2024, 1, 3));
+        assertThat(results).extracting(ExpenseResponse::getDescription)
+                .contains("Compras no mercado central", "Desconto de 10% no mercado")
+                .doesNotContain("Cinema")
+                .hasSize(4);
+        assertThat(results).allSatisfy(e -> assertThat(e.getCategory().getName()).isEqualTo("Mercado"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void pagesFollowTheRankOrder() {
+        List<ExpenseResponse> all = search("mercado", 0, 10);
+
+        assertThat(search("mercado", 0, 3)).isEqualTo(all.subList(0, 3));
+        assertThat(search("mercado", 1, 3)).isEqualTo(all.subList(3, 4));
+    }
+
+    @Test
+    void wildcardsTypedByTheUserAreLiteral() {
+        assertThat(search("10%", 0, 10)).extracting(ExpenseResponse::getDescription)
+                .containsExactly("Desconto de 10% no mercado");
+    }
+
+    @Test
+    void categoriesComeRankedInOneStatement() {
+        SearchQuery query = searchSettings.query("mercado", 0, 10);
+
+        List<CategoryResponse> results = categoryRepository.searchByName(userId, query.term(), query.pattern(),
+                query.limit(), query.offset());
+
+        assertThat(results).extracting(CategoryResponse::getName).containsExactly("Mercado", "Supermercado");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private List<ExpenseResponse> search(String term, int page, int size) {
+        SearchQuery query = searchSettings.query(term, page, size);
+        return expenseRepository.searchByDescription(userId, query.term(), query.pattern(), query.limit(), query.offset());
+    }
+
+    private void expense(User user, Category category, String description, LocalDate date) {
+        Expense expense = TestFixtures.expense(user, category, "10.00", date);
+        expense.setDescription(description);
+        entityManager.persist(expense);
+    }
+}
@@ -0,0 +1,125 @@
+package com.devilish.planwise.repository.goal;
+
+import com.devilish.planwise.entities.Goal;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Cada incremento roda na sua própria transação, como requisições simultâneas de vários dispositivos
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GoalProgressConcurrencyTest extends PostgresRepositoryTest {
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS_PER_THREAD = 50;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+    private Long goalId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        User user = userRepository.save(TestFixtures.user("Concorrência"));
+        userId = user.getId();
+
+        Goal goal = TestFixtures.goal(user, "Reserva de emergência", "1000.00", LocalDate.now().plusYears(1));
+        goalId = goalRepository.save(goal).getId();
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        transactionTemplate.executeWithoutResult(status ->
+                                goalRepository.addProgress(goalId, userId, BigDecimal.ONE, LocalDate.now()).orElseThrow());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = THREADS * INCREMENTS_PER_THREAD;
+        Goal goal = goalRepository.findById(goalId).orElseThrow();
+        assertThat(goal.getCurrentValue()).isEqualByComparingTo(BigDecimal.valueOf(total));
+        assertThat(goal.getVersion()).isEqualTo((long) total);
+        assertThat(goal.getStatus()).isEqualTo(Goal.GoalStatus.EM_ANDAMENTO);
+    }
+
+    @Test
+    void incrementReachingTargetMarksGoalAchieved() {
+        GoalProgress progress = transactionTemplate.execute(status ->
+                goalRepository.addProgress(goalId, userId, new BigDecimal("1000.00"), LocalDate.now()).orElseThrow());
+
+        assertThat(progress.getCurrentValue()).isEqualByComparingTo("1000.00");
+        assertThat(progress.getStatus()).isEqualTo(Goal.GoalStatus.ATINGIDA);
+        assertThat(progress.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void incrementOfAnotherUsersGoalFindsNothing() {
+        Optional<GoalProgress> progress = transactionTemplate.execute(status ->
+                goalRepository.addProgress(goalId, userId + 1, BigDecimal.ONE, LocalDate.now()));
+
+        assertThat(progress).isEmpty();
+    }
+
+    @Test
+    void staleFullUpdateIsRejected() {
+        Goal stale = goalRepository.findById(goalId).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status ->
+                goalRepository.addProgress(goalId, userId, BigDecimal.TEN, LocalDate.now()).orElseThrow());
+
+        stale.setDescription("Edição concorrente");
+        assertThatThrownBy(() -> goalRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        Goal current = goalRepository.findById(goalId).orElseThrow();
+        assertThat(current.getCurrentValue()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThat(current.getDescription()).isEqualTo("Reserva de emergência");
+    }
+}
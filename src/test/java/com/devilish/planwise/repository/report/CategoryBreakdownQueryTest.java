@@ -0,0 +1,157 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Período de 15/01 a 31/03: janeiro é borda parcial (transações), fevereiro e março vêm do acumulado
+// mensal e dezembro entra apenas como base da variação de janeiro. A variação compara meses inteiros:
+// a de janeiro, coberto em parte, fica nula, e fevereiro compara com janeiro inteiro (80), não com os 30 do período
+class CategoryBreakdownQueryTest extends PostgresRepositoryTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 15);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    private Long userId;
+    private Long marketId;
+    private Long transportId;
+    private Long salaryId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Categorias"));
+        userId = user.getId();
+
+        Category market = category(user, "Mercado", Category.CategoryType.DESPESA);
+        Category transport = category(user, "Transporte", Category.CategoryType.DESPESA);
+        Category salary = category(user, "Salário", Category.CategoryType.RECEITA);
+        marketId = market.getId();
+        transportId = transport.getId();
+        salaryId = salary.getId();
+
+        expense(user, market, "100.00", LocalDate.of(2023, 12, 1));
+        expense(user, market, "50.00", LocalDate.of(2024, 1, 10));
+        expense(user, market, "30.00", LocalDate.of(2024, 1, 20));
+        expense(user, market, "60.00", LocalDate.of(2024, 3, 5));
+        expense(user, transport, "10.00", LocalDate.of(2024, 2, 10));
+        income(user, salary, "200.00", LocalDate.of(2024, 3, 1));
+        entityManager.flush();
+
+        monthlyRollupRepository.deleteAllRollups();
+        monthlyRollupRepository.rebuildExpenseRollups();
+        monthlyRollupRepository.rebuildIncomeRollups();
+    }
+
+    @Test
+    void categoryBreakdownComparesEachMonthWithThePreviousOne() {
+        List<CategoryMonth> months = reportRepository.getCategoryBreakdown(userId, FROM, TO,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1));
+
+        // Despesas primeiro, maior total primeiro; três meses por categoria, inclusive os sem movimento
+        assertThat(months).extracting(CategoryMonth::getCategoryId)
+                .containsExactly(marketId, marketId, marketId, transportId, transportId, transportId, salaryId, salaryId, salaryId);
+
+        CategoryMonth january = months.get(0);
+        assertThat(january.getMonth()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(january.getTotal()).isEqualByComparingTo("30.00");
+        assertThat(january.getCount()).isEqualTo(1L);
+        assertThat(january.getPreviousTotal()).isEqualByComparingTo("100.00");
+        assertThat(january.getChange()).isNull();
+        assertThat(january.getChangePercent()).isNull();
+        assertThat(january.getCategoryTotal()).isEqualByComparingTo("90.00");
+        assertThat(january.getCategoryCount()).isEqualTo(2L);
+        assertThat(january.getShare()).isEqualByComparingTo("90.00");
+
+        CategoryMonth february = months.get(1);
+        assertThat(february.getTotal()).isEqualByComparingTo("0");
+        assertThat(february.getCount()).isZero();
+        assertThat(february.getPreviousTotal()).isEqualByComparingTo("80.00");
+        assertThat(february.getChange()).isEqualByComparingTo("-80.00");
+        assertThat(february.getChangePercent()).isEqualByComparingTo("-100.00");
+
+        CategoryMonth march = months.get(2);
+        assertThat(march.getTotal()).isEqualByComparingTo("60.00");
+        assertThat(march.getChange()).isEqualByComparingTo("60.00");
+        assertThat(march.getChangePercent()).isNull();
+
+        assertThat(months.get(3).getShare()).isEqualByComparingTo("10.00");
+        assertThat(months.get(6).getType()).isEqualTo("RECEITA");
+        assertThat(months.get(6).getShare()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void partialLastMonthHasNoChange() {
+        List<CategoryMonth> months = reportRepository.getCategoryBreakdown(userId,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 4),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1),
+                LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1));
+
+        // Mercado: janeiro inteiro (80) contra dezembro; março só até o dia 4, sem os 60 do dia 5
+        assertThat(months).filteredOn(month -> month.getCategoryId().equals(marketId))
+                .satisfiesExactly(
+                        january -> {
+                            assertThat(january.getTotal()).isEqualByComparingTo("80.00");
+                            assertThat(january.getChange()).isEqualByComparingTo("-20.00");
+                            assertThat(january.getChangePercent()).isEqualByComparingTo("-20.00");
+                        },
+                        february -> assertThat(february.getChangePercent()).isEqualByComparingTo("-100.00"),
+                        march -> {
+                            assertThat(march.getTotal()).isEqualByComparingTo("0");
+                            assertThat(march.getPreviousTotal()).isEqualByComparingTo("0");
+                            assertThat(march.getChange()).isNull();
+                            assertThat(march.getChangePercent()).isNull();
+                            assertThat(march.getCategoryTotal()).isEqualByComparingTo("80.00");
+                        });
+        // Salário (01/03) está no período mesmo com março incompleto
+        assertThat(months).filteredOn(month -> month.getCategoryId().equals(salaryId))
+                .last().satisfies(march -> {
+                    assertThat(march.getTotal()).isEqualByComparingTo("200.00");
+                    assertThat(march.getChange()).isNull();
+                });
+    }
+
+    @Test
+    void categoriesWithoutMovementInThePeriodAreLeftOut() {
+        List<CategoryMonth> months = reportRepository.getCategoryBreakdown(userId,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29),
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1));
+
+        assertThat(months).singleElement().satisfies(month -> {
+            assertThat(month.getCategoryId()).isEqualTo(transportId);
+            assertThat(month.getPreviousTotal()).isEqualByComparingTo("0");
+        });
+    }
+
+    private Category category(User user, String name, Category.CategoryType type) {
+        return entityManager.persist(TestFixtures.category(user, name, type));
+    }
+
+    private void expense(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.expense(user, category, value, date));
+    }
+
+    private void income(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.income(user, category, value, date));
+    }
+}
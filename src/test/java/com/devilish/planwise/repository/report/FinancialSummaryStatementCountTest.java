@@ -0,0 +1,114 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.dto.report.FinancialSummaryResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.services.report.ReportService;
+import com.devilish.planwise.services.user.UserService;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// Os resumos financeiros (histórico completo e por período) saem de um único comando SQL,
+// qualquer que seja o número de transações e de meses do período
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ReportService.class)
+class FinancialSummaryStatementCountTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @MockitoBean
+    private UserService userService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Resumo"));
+        Category market = entityManager.persist(TestFixtures.category(user, "Mercado", Category.CategoryType.DESPESA));
+        Category salary = entityManager.persist(TestFixtures.category(user, "Salário", Category.CategoryType.RECEITA));
+
+        income(user, salary, "1000.00", LocalDate.of(2024, 1, 5));
+        expense(user, market, "200.00", LocalDate.of(2024, 1, 20));
+        income(user, salary, "500.00", LocalDate.of(2024, 2, 10));
+        expense(user, market, "300.00", LocalDate.of(2024, 2, 25));
+        expense(user, market, "50.00", LocalDate.of(2024, 3, 5));
+        income(user, salary, "80.00", LocalDate.of(2024, 3, 20));
+        Expense removed = TestFixtures.expense(user, market, "999.00", LocalDate.of(2024, 2, 15));
+        removed.setActive(false);
+        entityManager.persist(removed);
+        entityManager.flush();
+
+        monthlyRollupRepository.deleteAllRollups();
+        monthlyRollupRepository.rebuildExpenseRollups();
+        monthlyRollupRepository.rebuildIncomeRollups();
+        entityManager.clear();
+
+        when(userService.getCurrentUserId()).thenReturn(user.getId());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void fullHistorySummaryIsSingleStatement() {
+        FinancialSummaryResponse summary = reportService.getFinancialSummary();
+
+        assertThat(summary.getTotalIncome()).isEqualByComparingTo("1580.00");
+        assertThat(summary.getTotalExpense()).isEqualByComparingTo("550.00");
+        assertThat(summary.getBalance()).isEqualByComparingTo("1030.00");
+        assertThat(summary.getIncomeCount()).isEqualTo(3);
+        assertThat(summary.getExpenseCount()).isEqualTo(3);
+        assertThat(summary.getTotalTransactions()).isEqualTo(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void dateRangeSummaryIsSingleStatement() {
+        // Fevereiro completo vem do acumulado mensal; 15 a 31/01 e 01 a 10/03 vêm das transações
+        FinancialSummaryResponse summary = reportService.getFinancialSummaryByDateRange(
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertThat(summary.getTotalIncome()).isEqualByComparingTo("500.00");
+        assertThat(summary.getTotalExpense()).isEqualByComparingTo("550.00");
+        assertThat(summary.getBalance()).isEqualByComparingTo("-50.00");
+        assertThat(summary.getIncomeCount()).isEqualTo(1);
+        assertThat(summary.getExpenseCount()).isEqualTo(3);
+        assertThat(summary.getTotalTransactions()).isEqualTo(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private void expense(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.expense(user, category, value, date));
+    }
+
+    private void income(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.income(user, category, value, date));
+    }
+}
@@ -0,0 +1,122 @@
+package com.devilish.planwise.repository.report;
+
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Janeiro/2024 (dias e semanas, direto das transações) e janeiro a abril/2025 (meses, acumulado mensal
+// com as bordas parciais lidas das transações). 01/01/2024 é uma segunda-feira.
+class TimeseriesQueryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Série"));
+        userId = user.getId();
+        Category market = entityManager.persist(TestFixtures.category(user, "Mercado", Category.CategoryType.DESPESA));
+        Category salary = entityManager.persist(TestFixtures.category(user, "Salário", Category.CategoryType.RECEITA));
+
+        income(user, salary, "999.00", LocalDate.of(2024, 1, 2));
+        income(user, salary, "100.00", LocalDate.of(2024, 1, 3));
+        expense(user, market, "30.00", LocalDate.of(2024, 1, 7));
+        expense(user, market, "20.00", LocalDate.of(2024, 1, 8));
+        income(user, salary, "50.00", LocalDate.of(2024, 1, 24));
+        Expense removed = TestFixtures.expense(user, market, "500.00", LocalDate.of(2024, 1, 10));
+        removed.setActive(false);
+        entityManager.persist(removed);
+
+        expense(user, market, "15.00", LocalDate.of(2025, 1, 10));
+        expense(user, market, "40.00", LocalDate.of(2025, 1, 20));
+        income(user, salary, "300.00", LocalDate.of(2025, 3, 5));
+        expense(user, market, "100.00", LocalDate.of(2025, 3, 20));
+        income(user, salary, "70.00", LocalDate.of(2025, 4, 5));
+        income(user, salary, "999.00", LocalDate.of(2025, 4, 20));
+        entityManager.flush();
+
+        monthlyRollupRepository.deleteAllRollups();
+        monthlyRollupRepository.rebuildExpenseRollups();
+        monthlyRollupRepository.rebuildIncomeRollups();
+    }
+
+    @Test
+    void weeksStartOnMondayAndEmptyWeeksAreZeroFilled() {
+        // 03/01 (quarta) a 24/01 (quarta): de 01/01 a 22/01, todas segundas-feiras
+        List<TimeseriesPoint> points = reportRepository.getTimeseries(userId, "week", "1 week",
+                LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 24),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 22));
+
+        assertThat(points).extracting(TimeseriesPoint::getBucket).containsExactly(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 22));
+        // Domingo 07/01 fica na semana de 01/01; a receita de 02/01 é anterior ao período e a despesa inativa não conta
+        assertPoint(points.get(0), "100.00", "30.00", "70.00", "70.00");
+        assertPoint(points.get(1), "0", "20.00", "-20.00", "50.00");
+        assertPoint(points.get(2), "0", "0", "0", "50.00");
+        assertPoint(points.get(3), "50.00", "0", "50.00", "100.00");
+    }
+
+    @Test
+    void daysWithoutTransactionsCarryTheRunningBalance() {
+        List<TimeseriesPoint> points = reportRepository.getTimeseries(userId, "day", "1 day",
+                LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 9),
+                LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 9));
+
+        assertThat(points).extracting(TimeseriesPoint::getBucket).containsExactly(
+                LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 7), LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 9));
+        assertPoint(points.get(0), "0", "0", "0", "0");
+        assertPoint(points.get(1), "0", "30.00", "-30.00", "-30.00");
+        assertPoint(points.get(2), "0", "20.00", "-20.00", "-50.00");
+        assertPoint(points.get(3), "0", "0", "0", "-50.00");
+    }
+
+    @Test
+    void monthsCombineRollupsWithPartialEdges() {
+        // 15/01 a 10/04: fevereiro e março vêm do acumulado; janeiro e abril são bordas parciais
+        List<TimeseriesPoint> points = reportRepository.getMonthlyTimeseries(userId, "1 month",
+                LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 10),
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 1),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 1));
+
+        assertThat(points).extracting(TimeseriesPoint::getBucket).containsExactly(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1));
+        assertPoint(points.get(0), "0", "40.00", "-40.00", "-40.00");
+        assertPoint(points.get(1), "0", "0", "0", "-40.00");
+        assertPoint(points.get(2), "300.00", "100.00", "200.00", "160.00");
+        assertPoint(points.get(3), "70.00", "0", "70.00", "230.00");
+    }
+
+    private static void assertPoint(TimeseriesPoint point, String income, String expense, String balance, String cumulative) {
+        assertThat(point.getIncome()).as("income %s", point.getBucket()).isEqualByComparingTo(income);
+        assertThat(point.getExpense()).as("expense %s", point.getBucket()).isEqualByComparingTo(expense);
+        assertThat(point.getBalance()).as("balance %s", point.getBucket()).isEqualByComparingTo(balance);
+        assertThat(point.getCumulativeBalance()).as("cumulative %s", point.getBucket()).isEqualByComparingTo(cumulative);
+    }
+
+    private void expense(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.expense(user, category, value, date));
+    }
+
+    private void income(User user, Category category, String value, LocalDate date) {
+        entityManager.persist(TestFixtures.income(user, category, value, date));
+    }
+}
@@ -0,0 +1,141 @@
+package com.devilish.planwise.services.auth;
+
+import com.devilish.planwise.config.BoundedPasswordEncoder;
+import com.devilish.planwise.config.JwtService;
+import com.devilish.planwise.controllers.auth.AuthController;
+import com.devilish.planwise.dto.auth.AuthResponse;
+import com.devilish.planwise.dto.auth.LoginRequest;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.services.user.CustomUserDetailsService;
+import com.devilish.planwise.support.TestFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Login pelo mesmo caminho do Spring Security (DaoAuthenticationProvider + UserDetailsPasswordService)
+// com o encoder limitado por cima do BCrypt
+@ExtendWith(MockitoExtension.class)
+class LoginPasswordHashingTest {
+
+    private static final String PASSWORD = "senha123";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    void loginWithWeakerHashPersistsUpgradedHash() {
+        User user = TestFixtures.user("Rehash");
+        user.setId(7L);
+        user.setPassword(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(user)).thenReturn("token");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), 1, 0, new SimpleMeterRegistry());
+
+        AuthResponse response = authService(encoder).login(new LoginRequest(user.getEmail(), PASSWORD));
+
+        ArgumentCaptor<String> upgraded = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(7L), upgraded.capture());
+        assertThat(upgraded.getValue()).startsWith("$2a$10$");
+        assertThat(new BCryptPasswordEncoder(10).matches(PASSWORD, upgraded.getValue())).isTrue();
+        assertThat(user.getPassword()).isEqualTo(upgraded.getValue());
+        assertThat(response.getToken()).isEqualTo("token");
+    }
+
+    @Test
+    void loginWithCurrentHashIsNotRewritten() {
+        User user = TestFixtures.user("Atual");
+        user.setId(8L);
+        user.setPassword(new BCryptPasswordEncoder(10).encode(PASSWORD));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), 1, 0, new SimpleMeterRegistry());
+
+        authService(encoder).login(new LoginRequest(user.getEmail(), PASSWORD));
+
+        verify(userRepository, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    void saturatedHashingPoolAnswers503() throws Exception {
+        // O provider faz um hash de proteção contra timing antes de buscar o usuário; é ele que é recusado
+        User user = TestFixtures.user("Ocupado");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(started, release), 1, 0, new SimpleMeterRegistry());
+        AuthController controller = new AuthController(authService(encoder));
+
+        // Outro login ocupa a única thread de hashing
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> encoder.encode("outro"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            ResponseEntity<AuthResponse> response = controller.login(new LoginRequest(user.getEmail(), PASSWORD));
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        } finally {
+            release.countDown();
+        }
+        inFlight.get(5, TimeUnit.SECONDS);
+        verifyNoInteractions(jwtService);
+    }
+
+    private AuthService authService(PasswordEncoder passwordEncoder) {
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return new AuthService(userRepository, passwordEncoder, jwtService, new ProviderManager(provider));
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+}
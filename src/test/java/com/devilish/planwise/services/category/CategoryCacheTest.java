@@ -0,0 +1,74 @@
+package com.devilish.planwise.services.category;
+
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.category.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+// A validação das gravações sai do mapa em memória: uma consulta por usuário até a próxima alteração
+@ExtendWith(MockitoExtension.class)
+class CategoryCacheTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryCache categoryCache;
+
+    @BeforeEach
+    void setUp() {
+        categoryCache = new CategoryCache(categoryRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        when(categoryRepository.findByUserIdAndActiveTrueOrderByNameAsc(1L)).thenReturn(List.of(
+                new CategoryResponse(10L, "Casa", Category.CategoryType.DESPESA, null, true),
+                new CategoryResponse(11L, "Salário", Category.CategoryType.RECEITA, null, true)));
+    }
+
+    @Test
+    void writesAreValidatedWithoutGoingToTheDatabase() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(categoryCache.require(1L, 10L, Category.CategoryType.DESPESA).getName()).isEqualTo("Casa");
+        }
+
+        verify(categoryRepository, times(1)).findByUserIdAndActiveTrueOrderByNameAsc(1L);
+        verifyNoMoreInteractions(categoryRepository);
+    }
+
+    @Test
+    void wrongTypeIsRejected() {
+        assertThatThrownBy(() -> categoryCache.require(1L, 11L, Category.CategoryType.DESPESA))
+                .hasMessage("A categoria deve ser do tipo DESPESA");
+    }
+
+    @Test
+    void unknownIdsAreRejectedWithoutReloadingTheUser() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> categoryCache.require(1L, 99L, Category.CategoryType.DESPESA))
+                    .hasMessage("Categoria não encontrada");
+        }
+
+        verify(categoryRepository, times(1)).findByUserIdAndActiveTrueOrderByNameAsc(1L);
+    }
+
+    @Test
+    void categoryChangeReloadsTheUser() {
+        categoryCache.getAll(1L);
+
+        categoryCache.onUserDataChanged(new UserDataChangedEvent(1L, UserDataChangedEvent.Source.CATEGORY));
+        categoryCache.onUserDataChanged(new UserDataChangedEvent(1L, UserDataChangedEvent.Source.EXPENSE));
+        categoryCache.getAll(1L);
+
+        verify(categoryRepository, times(2)).findByUserIdAndActiveTrueOrderByNameAsc(1L);
+    }
+}
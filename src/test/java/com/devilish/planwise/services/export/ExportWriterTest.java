@@ -0,0 +1,47 @@
+package com.devilish.planwise.services.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @Test
+    void formulaLikeTextIsPrefixedWithApostrophe() throws IOException {
+        String csv = csvRow("=HYPERLINK(\"http://x\")", "+1", "-2", "@SUM(A1)", "\tcmd", "\rcmd");
+
+        assertThat(csv).isEqualTo(
+                "\"'=HYPERLINK(\"\"http://x\"\")\",'+1,'-2,'@SUM(A1),'\tcmd,\"'\rcmd\"\r\n");
+    }
+
+    @Test
+    void ordinaryValuesAndNegativeNumbersAreUnchanged() throws IOException {
+        String csv = csvRow("Mercado", "a-b", "", new BigDecimal("-10.50"), null);
+
+        assertThat(csv).isEqualTo("Mercado,a-b,,-10.50,\r\n");
+    }
+
+    @Test
+    void separatorsQuotesAndLineBreaksAreQuoted() throws IOException {
+        String csv = csvRow("Aluguel, março", "Disse \"oi\"", "linha 1\nlinha 2");
+
+        assertThat(csv).isEqualTo("\"Aluguel, março\",\"Disse \"\"oi\"\"\",\"linha 1\nlinha 2\"\r\n");
+    }
+
+    private static String csvRow(Object... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter writer = new ExportWriter(ExportFormat.CSV, new ObjectMapper(), out);
+        List<Object> columns = Arrays.asList(values);
+        writer.write(columns, columns);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
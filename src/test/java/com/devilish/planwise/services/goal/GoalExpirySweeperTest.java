@@ -0,0 +1,133 @@
+package com.devilish.planwise.services.goal;
+
+import com.devilish.planwise.entities.Goal;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.goal.GoalRepository;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cada bloco é gravado em uma transação própria, como na varredura agendada
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({GoalExpirySweeper.class, GoalExpirySweeperTest.Metrics.class})
+@TestPropertySource(properties = "planwise.goals.expiry.chunk-size=3")
+@RecordApplicationEvents
+class GoalExpirySweeperTest extends PostgresRepositoryTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private GoalExpirySweeper sweeper;
+
+    @Autowired
+    private GoalRepository goalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void expiresOverdueGoalsAcrossSeveralChunks() {
+        LocalDate today = LocalDate.now();
+        User first = userRepository.save(TestFixtures.user("Varredura 1"));
+        User second = userRepository.save(TestFixtures.user("Varredura 2"));
+        List<Long> overdue = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User owner = i % 2 == 0 ? first : second;
+            overdue.add(goalRepository.save(TestFixtures.goal(owner, "Vencida " + i, "100.00", today.minusDays(i + 1))).getId());
+        }
+        Long dueToday = goalRepository.save(TestFixtures.goal(first, "Vence hoje", "100.00", today)).getId();
+        Goal reached = TestFixtures.goal(second, "Atingida", "100.00", today.minusDays(3));
+        reached.setStatus(Goal.GoalStatus.ATINGIDA);
+        Long reachedId = goalRepository.save(reached).getId();
+
+        int expired = sweeper.expireAll(today);
+
+        // 7 metas em blocos de 3: 3 + 3 + 1
+        assertThat(expired).isEqualTo(7);
+        assertThat(goalRepository.findAllById(overdue))
+                .extracting(Goal::getStatus)
+                .containsOnly(Goal.GoalStatus.VENCIDA)
+                .hasSize(7);
+        assertThat(goalRepository.findById(dueToday).orElseThrow().getStatus()).isEqualTo(Goal.GoalStatus.EM_ANDAMENTO);
+        assertThat(goalRepository.findById(reachedId).orElseThrow().getStatus()).isEqualTo(Goal.GoalStatus.ATINGIDA);
+        assertThat(meterRegistry.counter("planwise.goals.expiry.rows").count()).isGreaterThanOrEqualTo(7);
+
+        // Um evento por usuário em cada bloco que tocou suas metas: os dois nos blocos cheios, só o primeiro no último
+        assertThat(events.stream(UserDataChangedEvent.class))
+                .allMatch(event -> event.source() == UserDataChangedEvent.Source.GOAL)
+                .extracting(UserDataChangedEvent::userId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId(), first.getId(), second.getId(), first.getId());
+
+        assertThat(sweeper.expireAll(today)).isZero();
+    }
+
+    @Test
+    void sweepIsSkippedWhileAnotherNodeHoldsTheLock() throws Exception {
+        LocalDate today = LocalDate.now();
+        User user = userRepository.save(TestFixtures.user("Lock"));
+        Long goalId = goalRepository.save(TestFixtures.goal(user, "Vencida", "100.00", today.minusDays(1))).getId();
+        double skippedBefore = meterRegistry.counter("planwise.goals.expiry.skipped").count();
+
+        // Outro nó: mesmo advisory lock, em uma sessão própria
+        try (Connection otherNode = dataSource.getConnection()) {
+            advisoryLock(otherNode, "SELECT pg_advisory_lock(?)");
+            try {
+                sweeper.sweep();
+            } finally {
+                advisoryLock(otherNode, "SELECT pg_advisory_unlock(?)");
+            }
+        }
+
+        assertThat(meterRegistry.counter("planwise.goals.expiry.skipped").count()).isEqualTo(skippedBefore + 1);
+        assertThat(goalRepository.findById(goalId).orElseThrow().getStatus()).isEqualTo(Goal.GoalStatus.EM_ANDAMENTO);
+
+        sweeper.sweep();
+
+        assertThat(meterRegistry.counter("planwise.goals.expiry.skipped").count()).isEqualTo(skippedBefore + 1);
+        assertThat(goalRepository.findById(goalId).orElseThrow().getStatus()).isEqualTo(Goal.GoalStatus.VENCIDA);
+    }
+
+    private static void advisoryLock(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, GoalExpirySweeper.LOCK_KEY);
+            statement.execute();
+        }
+    }
+}
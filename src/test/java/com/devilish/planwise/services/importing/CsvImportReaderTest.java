@@ -0,0 +1,93 @@
+package com.devilish.planwise.services.importing;
+
+import com.devilish.planwise.services.export.ExportFormat;
+import com.devilish.planwise.services.export.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvImportReaderTest {
+
+    @Test
+    void exportedFileIsReadBack() throws IOException {
+        List<String> descriptions = List.of(
+                "Mercado",
+                "Aluguel, março",
+                "Disse \"oi\"",
+                "linha 1\nlinha 2",
+                "linha 1\r\nlinha 2",
+                "=1+1",
+                "-desconto");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter writer = new ExportWriter(ExportFormat.CSV, new ObjectMapper(), out);
+        writer.start(List.of("id", "description", "value", "date", "category", "createdAt"));
+        for (int i = 0; i < descriptions.size(); i++) {
+            List<Object> columns = List.of(i + 1L, descriptions.get(i), new BigDecimal("10.50"),
+                    LocalDate.of(2025, 3, i + 1), "Casa, \"fixo\"", "");
+            writer.write(columns, columns);
+        }
+        writer.finish();
+
+        List<ImportRow> rows = read(out.toString(StandardCharsets.UTF_8));
+
+        assertThat(rows).extracting(ImportRow::description).containsExactlyElementsOf(descriptions);
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.parseError()).isNull();
+            assertThat(row.value()).isEqualByComparingTo("10.50");
+            assertThat(row.categoryName()).isEqualTo("Casa, \"fixo\"");
+        });
+        assertThat(rows).extracting(ImportRow::date)
+                .containsExactly(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 3),
+                        LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 6),
+                        LocalDate.of(2025, 3, 7));
+    }
+
+    @Test
+    void lineNumbersPointAtTheStartOfEachRecord() throws IOException {
+        List<ImportRow> rows = read("""
+                description,value,date,categoryId
+                "Conta
+                de luz",80.00,2025-03-01,1
+
+                Água,abc,2025-03-02,1
+                Gás,40.00,2025-03-03,1
+                """);
+
+        assertThat(rows).extracting(ImportRow::line).containsExactly(2, 5, 6);
+        assertThat(rows.get(0).description()).isEqualTo("Conta\nde luz");
+        assertThat(rows.get(1).parseError()).isEqualTo("Valor numérico inválido");
+        assertThat(rows.get(2).parseError()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedOnItsFirstLine() throws IOException {
+        List<ImportRow> rows = read("""
+                description,value,date,categoryId
+                Mercado,10.00,2025-03-01,1
+                "Sem fim,20.00,2025-03-02,1
+                Gás,40.00,2025-03-03,1
+                """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1).line()).isEqualTo(3);
+        assertThat(rows.get(1).parseError()).isEqualTo("Campo entre aspas não fechado");
+    }
+
+    private static List<ImportRow> read(String csv) throws IOException {
+        CsvImportReader reader = new CsvImportReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        List<ImportRow> rows = new ArrayList<>();
+        reader.forEachRemaining(rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,83 @@
+package com.devilish.planwise.services.importing;
+
+import com.devilish.planwise.dto.category.CategoryResponse;
+import com.devilish.planwise.dto.common.ImportResult;
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.services.category.CategoryCache;
+import com.devilish.planwise.services.report.BalanceLedgerService;
+import com.devilish.planwise.services.report.MonthlyRollupService;
+import com.devilish.planwise.services.user.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionImportServiceTest {
+
+    @Mock
+    private CategoryCache categoryCache;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private BalanceLedgerService balanceLedgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new TransactionImportService(categoryCache, userService, monthlyRollupService,
+                balanceLedgerService, eventPublisher, entityManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 2);
+        when(categoryCache.getByType(1L, Category.CategoryType.DESPESA)).thenReturn(List.of(
+                new CategoryResponse(10L, "Casa", Category.CategoryType.DESPESA, null, true)));
+    }
+
+    @Test
+    void failedChunkReportsGenericMessageWithoutDatabaseDetail() {
+        doThrow(new DataIntegrityViolationException("ERROR: duplicate key value violates unique constraint \"tb_expense_pkey\""))
+                .when(entityManager).flush();
+
+        ImportResult result = importService.importRows(1L, Category.CategoryType.DESPESA, List.of(
+                ImportRow.of(2, "Mercado", new BigDecimal("10.00"), LocalDate.of(2025, 3, 1), 10L),
+                ImportRow.of(3, "Farmácia", new BigDecimal("20.00"), LocalDate.of(2025, 3, 2), 10L)).iterator(),
+                (user, category, row) -> new Expense());
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors()).hasSize(2).allSatisfy(error -> {
+            assertThat(error.getMessage()).isEqualTo("Não foi possível gravar o bloco desta linha; tente importar novamente");
+            assertThat(error.getMessage()).doesNotContain("tb_expense", "constraint");
+        });
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(monthlyRollupService, balanceLedgerService, eventPublisher);
+    }
+}
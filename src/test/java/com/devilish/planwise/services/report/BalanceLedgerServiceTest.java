@@ -0,0 +1,95 @@
+package com.devilish.planwise.services.report;
+
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.User;
+import com.devilish.planwise.repository.report.BalanceLedgerRepository;
+import com.devilish.planwise.repository.report.BalanceRange;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Gravações fora de ordem (datas passadas, mudanças de data, exclusões) devem deixar o saldo
+// de cada dia igual à soma de tudo o que foi gravado até ele
+@Import(BalanceLedgerService.class)
+class BalanceLedgerServiceTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private BalanceLedgerRepository balanceLedgerRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(TestFixtures.user("Saldo"));
+        entityManager.flush();
+        userId = user.getId();
+    }
+
+    @Test
+    void backDatedWritesShiftOnlyLaterDays() {
+        balanceLedgerService.add(userId, Category.CategoryType.RECEITA, day(10), new BigDecimal("100.00"));
+        balanceLedgerService.add(userId, Category.CategoryType.DESPESA, day(20), new BigDecimal("30.00"));
+        balanceLedgerService.add(userId, Category.CategoryType.RECEITA, day(5), new BigDecimal("50.00"));
+
+        assertThat(balanceAsOf(day(4))).isEqualByComparingTo("0");
+        assertThat(balanceAsOf(day(5))).isEqualByComparingTo("50.00");
+        assertThat(balanceAsOf(day(15))).isEqualByComparingTo("150.00");
+        assertThat(balanceAsOf(day(31))).isEqualByComparingTo("120.00");
+    }
+
+    @Test
+    void movedAndRemovedTransactionsAreReflectedOnEveryLaterDay() {
+        balanceLedgerService.add(userId, Category.CategoryType.RECEITA, day(5), new BigDecimal("50.00"));
+        balanceLedgerService.add(userId, Category.CategoryType.RECEITA, day(10), new BigDecimal("100.00"));
+        balanceLedgerService.add(userId, Category.CategoryType.DESPESA, day(20), new BigDecimal("30.00"));
+
+        balanceLedgerService.move(userId, Category.CategoryType.DESPESA,
+                day(20), new BigDecimal("30.00"), day(8), new BigDecimal("40.00"));
+        balanceLedgerService.remove(userId, Category.CategoryType.RECEITA, day(5), new BigDecimal("50.00"));
+
+        assertThat(balanceAsOf(day(8))).isEqualByComparingTo("-40.00");
+        assertThat(balanceAsOf(day(10))).isEqualByComparingTo("60.00");
+        assertThat(balanceAsOf(day(25))).isEqualByComparingTo("60.00");
+
+        BalanceRange range = balanceLedgerRepository.getBalanceRange(userId, day(9), day(31));
+        assertThat(range.getOpeningBalance()).isEqualByComparingTo("-40.00");
+        assertThat(range.getClosingBalance()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void importedEntriesAreGroupedByDay() {
+        balanceLedgerService.add(userId, Category.CategoryType.DESPESA, day(20), new BigDecimal("10.00"));
+        balanceLedgerService.addAll(userId, Category.CategoryType.RECEITA, List.of(
+                new RollupEntry(1L, day(3), new BigDecimal("5.00")),
+                new RollupEntry(2L, day(3), new BigDecimal("7.00")),
+                new RollupEntry(1L, day(12), new BigDecimal("20.00"))));
+
+        assertThat(balanceAsOf(day(3))).isEqualByComparingTo("12.00");
+        assertThat(balanceAsOf(day(12))).isEqualByComparingTo("32.00");
+        assertThat(balanceAsOf(day(20))).isEqualByComparingTo("22.00");
+    }
+
+    private BigDecimal balanceAsOf(LocalDate date) {
+        return balanceLedgerRepository.getBalanceAsOf(userId, date);
+    }
+
+    private static LocalDate day(int dayOfMonth) {
+        return LocalDate.of(2024, 1, dayOfMonth);
+    }
+}
@@ -0,0 +1,215 @@
+package com.devilish.planwise.services.report;
+
+import com.devilish.planwise.dto.report.BalanceRangeResponse;
+import com.devilish.planwise.dto.report.FinancialSummaryResponse;
+import com.devilish.planwise.dto.report.TimeseriesResponse;
+import com.devilish.planwise.repository.goal.GoalRepository;
+import com.devilish.planwise.repository.report.BalanceLedgerRepository;
+import com.devilish.planwise.repository.report.BalanceRange;
+import com.devilish.planwise.repository.report.FinancialTotals;
+import com.devilish.planwise.repository.report.ReportRepository;
+import com.devilish.planwise.repository.report.TimeseriesPoint;
+import com.devilish.planwise.services.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private GoalRepository goalRepository;
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private BalanceLedgerRepository balanceLedgerRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.getCurrentUserId()).thenReturn(1L);
+    }
+
+    @Test
+    void financialSummaryIsLoadedWithSingleStatement() {
+        when(reportRepository.getFinancialTotals(1L)).thenReturn(totals("1500.00", "400.50", 3, 7));
+
+        FinancialSummaryResponse summary = reportService.getFinancialSummary();
+
+        verify(reportRepository, times(1)).getFinancialTotals(1L);
+        verifyNoMoreInteractions(reportRepository);
+        verifyNoInteractions(goalRepository);
+        verify(userService, never()).getCurrentUserEntity();
+
+        assertThat(summary.getTotalIncome()).isEqualByComparingTo("1500.00");
+        assertThat(summary.getTotalExpense()).isEqualByComparingTo("400.50");
+        assertThat(summary.getBalance()).isEqualByComparingTo("1099.50");
+        assertThat(summary.getIncomeCount()).isEqualTo(3);
+        assertThat(summary.getExpenseCount()).isEqualTo(7);
+        assertThat(summary.getTotalTransactions()).isEqualTo(10);
+    }
+
+    @Test
+    void financialSummaryByDateRangeIsLoadedWithSingleStatement() {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 1, 31);
+        LocalDate nextMonth = LocalDate.of(2024, 2, 1);
+        when(reportRepository.getFinancialTotalsByPeriod(1L, startDate, endDate, startDate, nextMonth))
+                .thenReturn(totals("200.00", "50.00", 1, 2));
+
+        FinancialSummaryResponse summary = reportService.getFinancialSummaryByDateRange(startDate, endDate);
+
+        verify(reportRepository, times(1)).getFinancialTotalsByPeriod(1L, startDate, endDate, startDate, nextMonth);
+        verifyNoMoreInteractions(reportRepository);
+        verifyNoInteractions(goalRepository);
+        verify(userService, never()).getCurrentUserEntity();
+
+        assertThat(summary.getStartDate()).isEqualTo(startDate);
+        assertThat(summary.getEndDate()).isEqualTo(endDate);
+        assertThat(summary.getBalance()).isEqualByComparingTo("150.00");
+        assertThat(summary.getTotalTransactions()).isEqualTo(3);
+    }
+
+    @Test
+    void partialMonthsAtTheEdgesAreReadFromTransactions() {
+        LocalDate startDate = LocalDate.of(2024, 1, 15);
+        LocalDate endDate = LocalDate.of(2024, 3, 10);
+        LocalDate monthsFrom = LocalDate.of(2024, 2, 1);
+        LocalDate monthsTo = LocalDate.of(2024, 3, 1);
+        when(reportRepository.getFinancialTotalsByPeriod(1L, startDate, endDate, monthsFrom, monthsTo))
+                .thenReturn(totals("10.00", "5.00", 1, 1));
+
+        reportService.getFinancialSummaryByDateRange(startDate, endDate);
+
+        verify(reportRepository, times(1)).getFinancialTotalsByPeriod(1L, startDate, endDate, monthsFrom, monthsTo);
+        verifyNoMoreInteractions(reportRepository);
+    }
+
+    @Test
+    void monthlyTimeseriesReadsFullMonthsFromRollups() {
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 4, 30);
+        when(reportRepository.getMonthlyTimeseries(1L, "1 month", from, to,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 1)))
+                .thenReturn(List.of(point("2024-01-01", "100.00", "40.00", "60.00")));
+
+        TimeseriesResponse timeseries = reportService.getTimeseries(TimeseriesGranularity.MONTH, from, to);
+
+        verify(reportRepository, times(1)).getMonthlyTimeseries(1L, "1 month", from, to,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 1));
+        verifyNoMoreInteractions(reportRepository);
+        assertThat(timeseries.getGranularity()).isEqualTo("month");
+        assertThat(timeseries.getPoints()).singleElement()
+                .satisfies(p -> assertThat(p.getBalance()).isEqualByComparingTo("60.00"));
+    }
+
+    @Test
+    void weeklyTimeseriesStartsOnMonday() {
+        LocalDate from = LocalDate.of(2024, 1, 10);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        when(reportRepository.getTimeseries(1L, "week", "1 week", from, to,
+                LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 29))).thenReturn(List.of());
+
+        reportService.getTimeseries(TimeseriesGranularity.WEEK, from, to);
+
+        verify(reportRepository, times(1)).getTimeseries(1L, "week", "1 week", from, to,
+                LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 29));
+        verifyNoMoreInteractions(reportRepository);
+    }
+
+    @Test
+    void timeseriesWithTooManyBucketsIsRejectedWithoutQuery() {
+        LocalDate from = LocalDate.of(2020, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+
+        assertThatThrownBy(() -> reportService.getTimeseries(TimeseriesGranularity.DAY, from, to))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(reportRepository);
+    }
+
+    @Test
+    void categoryBreakdownUsesPreviousMonthAsBaseline() {
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        when(reportRepository.getCategoryBreakdown(1L, from, to, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1))).thenReturn(List.of());
+
+        reportService.getCategoryBreakdown(from, to);
+
+        verify(reportRepository, times(1)).getCategoryBreakdown(1L, from, to, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2023, 12, 1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1));
+        verifyNoMoreInteractions(reportRepository);
+    }
+
+    @Test
+    void categoryBreakdownOverTooManyMonthsIsRejectedWithoutQuery() {
+        assertThatThrownBy(() -> reportService.getCategoryBreakdown(LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(reportRepository);
+    }
+
+    @Test
+    void balanceByDateRangeIsTheDifferenceOfTwoLookups() {
+        LocalDate startDate = LocalDate.of(2024, 3, 1);
+        LocalDate endDate = LocalDate.of(2024, 3, 31);
+        when(balanceLedgerRepository.getBalanceRange(1L, startDate, endDate)).thenReturn(new BalanceRange() {
+            public BigDecimal getOpeningBalance() { return new BigDecimal("1000.00"); }
+            public BigDecimal getClosingBalance() { return new BigDecimal("850.00"); }
+        });
+
+        BalanceRangeResponse balance = reportService.getBalanceByDateRange(startDate, endDate);
+
+        assertThat(balance.getNetChange()).isEqualByComparingTo("-150.00");
+        verifyNoInteractions(reportRepository);
+    }
+
+    @Test
+    void balanceByReversedDateRangeIsRejected() {
+        assertThatThrownBy(() -> reportService.getBalanceByDateRange(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 3, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(balanceLedgerRepository);
+    }
+
+    private TimeseriesPoint point(String bucket, String income, String expense, String cumulativeBalance) {
+        BigDecimal incomeValue = new BigDecimal(income);
+        BigDecimal expenseValue = new BigDecimal(expense);
+        return new TimeseriesPoint() {
+            public LocalDate getBucket() { return LocalDate.parse(bucket); }
+            public BigDecimal getIncome() { return incomeValue; }
+            public BigDecimal getExpense() { return expenseValue; }
+            public BigDecimal getBalance() { return incomeValue.subtract(expenseValue); }
+            public BigDecimal getCumulativeBalance() { return new BigDecimal(cumulativeBalance); }
+        };
+    }
+
+    private FinancialTotals totals(String income, String expense, long incomeCount, long expenseCount) {
+        BigDecimal totalIncome = new BigDecimal(income);
+        BigDecimal totalExpense = new BigDecimal(expense);
+        return new FinancialTotals() {
+            public BigDecimal getTotalIncome() { return totalIncome; }
+            public BigDecimal getTotalExpense() { return totalExpense; }
+            public BigDecimal getBalance() { return totalIncome.subtract(totalExpense); }
+            public Long getIncomeCount() { return incomeCount; }
+            public Long getExpenseCount() { return expenseCount; }
+            public Long getTotalTransactions() { return incomeCount + expenseCount; }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.devilish.planwise.services.report;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight("test", meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("2024", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "relatório";
+                })));
+            }
+
+            // Libera o cálculo só depois que todos os outros chamadores estão aguardando
+            while (calls("collapsed") < CALLERS - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("relatório");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(executions).hasValue(1);
+        assertThat(calls("executed")).isEqualTo(1);
+        assertThat(calls("collapsed")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void finishedExecutionIsNotReused() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("2024", executions::incrementAndGet);
+        singleFlight.execute("2024", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void failureIsPropagatedAndNotRemembered() {
+        assertThatThrownBy(() -> singleFlight.execute("2024", () -> {
+            throw new IllegalStateException("falhou");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("2024", () -> "ok")).isEqualTo("ok");
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get("planwise.single-flight.calls").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.devilish.planwise.services.user;
+
+import com.devilish.planwise.config.DataVersionListener;
+import com.devilish.planwise.config.ReadYourWritesTracker;
+import com.devilish.planwise.events.UserDataChangedEvent;
+import com.devilish.planwise.repository.user.UserDataVersionRepository;
+import com.devilish.planwise.repository.user.UserRepository;
+import com.devilish.planwise.support.PostgresRepositoryTest;
+import com.devilish.planwise.support.TestFixtures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// Versões em memória: o nó que grava avança logo após o commit, os outros pelo NOTIFY
+// (aqui, outra instância com o seu próprio LISTEN no mesmo banco)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataVersions.class, DataVersionListener.class, UserDataVersionsTest.Metrics.class})
+class UserDataVersionsTest extends PostgresRepositoryTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private UserDataVersions dataVersions;
+
+    @Autowired
+    private UserDataVersionRepository userDataVersionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectProvider<JdbcConnectionDetails> connectionDetails;
+
+    @Autowired
+    private ObjectProvider<ReadYourWritesTracker> readYourWrites;
+
+    private TransactionTemplate transactionTemplate;
+    private UserDataVersions otherNode;
+    private DataVersionListener otherListener;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        otherNode = new UserDataVersions(userDataVersionRepository, new SimpleMeterRegistry(), 100);
+        otherListener = new DataVersionListener(dataSourceProperties, connectionDetails, otherNode,
+                readYourWrites, Duration.ofMillis(500));
+        otherListener.start();
+        userId = userRepository.save(TestFixtures.user("Versões")).getId();
+        await(() -> dataVersions.isSubscribed() && otherNode.isSubscribed());
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherListener.stop();
+    }
+
+    @Test
+    void versionCheckIsAMemoryLookup() {
+        UserDataVersionRepository repository = mock(UserDataVersionRepository.class);
+        UserDataVersions versions = new UserDataVersions(repository, new SimpleMeterRegistry(), 100);
+        versions.subscribed();
+
+        String version = versions.current(1L);
+        for (int i = 0; i < 100; i++) {
+            assertThat(versions.current(1L)).isEqualTo(version);
+        }
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void committedChangeReachesEveryNode() {
+        String before = dataVersions.current(userId);
+        String otherBefore = otherNode.current(userId);
+
+        transactionTemplate.executeWithoutResult(status -> publish(userId));
+
+        // Quem gravou enxerga a mudança já no retorno do commit; os demais ao receber o NOTIFY
+        assertThat(dataVersions.current(userId)).isNotEqualTo(before);
+        await(() -> !otherNode.current(userId).equals(otherBefore));
+    }
+
+    @Test
+    void rolledBackChangeIsNotSent() {
+        Long markerId = userRepository.save(TestFixtures.user("Marcador")).getId();
+        String before = dataVersions.current(userId);
+        String otherBefore = otherNode.current(userId);
+        String markerBefore = otherNode.current(markerId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publish(userId);
+            status.setRollbackOnly();
+        });
+        // As notificações chegam na ordem dos commits: a do marcador só chega depois de qualquer anterior
+        transactionTemplate.executeWithoutResult(status -> publish(markerId));
+        await(() -> !otherNode.current(markerId).equals(markerBefore));
+
+        assertThat(dataVersions.current(userId)).isEqualTo(before);
+        assertThat(otherNode.current(userId)).isEqualTo(otherBefore);
+    }
+
+    @Test
+    void changeOutsideTransactionIsStillSent() {
+        String before = dataVersions.current(userId);
+        String otherBefore = otherNode.current(userId);
+
+        publish(userId);
+
+        assertThat(dataVersions.current(userId)).isNotEqualTo(before);
+        await(() -> !otherNode.current(userId).equals(otherBefore));
+    }
+
+    @Test
+    void withoutTheChannelEveryReadGetsANewVersion() {
+        otherListener.stop();
+
+        assertThat(otherNode.current(userId)).isNotEqualTo(otherNode.current(userId));
+    }
+
+    @Test
+    void nodesNeverShareAVersion() {
+        assertThat(otherNode.current(userId)).isNotEqualTo(dataVersions.current(userId));
+    }
+
+    private void publish(Long id) {
+        eventPublisher.publishEvent(new UserDataChangedEvent(id, UserDataChangedEvent.Source.EXPENSE));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tempo esgotado aguardando a notificação").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
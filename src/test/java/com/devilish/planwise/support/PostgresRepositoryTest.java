@@ -0,0 +1,20 @@
+package com.devilish.planwise.support;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Base dos testes de repositório contra o PostgreSQL real (consultas nativas, pg_trgm, window functions).
+// Um único contêiner para todas as classes, o que também permite reaproveitar o contexto do Spring.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class PostgresRepositoryTest {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    static {
+        postgres.start();
+    }
+}
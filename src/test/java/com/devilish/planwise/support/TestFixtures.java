@@ -0,0 +1,79 @@
+package com.devilish.planwise.support;
+
+import com.devilish.planwise.entities.Category;
+import com.devilish.planwise.entities.Expense;
+import com.devilish.planwise.entities.Goal;
+import com.devilish.planwise.entities.Income;
+import com.devilish.planwise.entities.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Entidades válidas e ainda não salvas; cada teste decide como persistir
+// (TestEntityManager dentro da transação do teste ou repositórios em transações próprias)
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // E-mail único: alguns testes confirmam as próprias transações
+    public static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail("user-" + UUID.randomUUID() + "@planwise.com");
+        user.setPassword("secret");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setActive(true);
+        user.setRole(User.Role.USER);
+        return user;
+    }
+
+    public static Category category(User user, String name, Category.CategoryType type) {
+        Category category = new Category();
+        category.setName(name);
+        category.setType(type);
+        category.setCreatedAt(LocalDateTime.now());
+        category.setActive(true);
+        category.setUser(user);
+        return category;
+    }
+
+    public static Expense expense(User user, Category category, String value, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setDescription(category.getName());
+        expense.setValue(new BigDecimal(value));
+        expense.setDate(date);
+        expense.setCreatedAt(LocalDateTime.now());
+        expense.setActive(true);
+        expense.setUser(user);
+        expense.setCategory(category);
+        return expense;
+    }
+
+    public static Income income(User user, Category category, String value, LocalDate date) {
+        Income income = new Income();
+        income.setDescription(category.getName());
+        income.setValue(new BigDecimal(value));
+        income.setDate(date);
+        income.setCreatedAt(LocalDateTime.now());
+        income.setActive(true);
+        income.setUser(user);
+        income.setCategory(category);
+        return income;
+    }
+
+    public static Goal goal(User user, String description, String targetValue, LocalDate deadline) {
+        Goal goal = new Goal();
+        goal.setDescription(description);
+        goal.setTargetValue(new BigDecimal(targetValue));
+        goal.setCurrentValue(BigDecimal.ZERO);
+        goal.setDeadline(deadline);
+        goal.setStatus(Goal.GoalStatus.EM_ANDAMENTO);
+        goal.setCreatedAt(LocalDateTime.now());
+        goal.setActive(true);
+        goal.setUser(user);
+        return goal;
+    }
+}